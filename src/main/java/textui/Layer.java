@@ -0,0 +1,143 @@
+package textui;
+
+import textui.element.Element;
+
+/**
+ * An element drawn on top of a {@link TextUI}'s body at a fixed position,
+ * such as a popup, a toast or a status bar.
+ *
+ * <p>A layer is not part of the body's element tree, so it takes no space in
+ * its layout. Each layer is rasterized into its element's own screen, which
+ * stays cached until that element changes, and the layers are composited over
+ * the body when a frame is drawn: higher z-indices on top, layers with equal
+ * z-indices in the order they were added. Adding, removing, moving or hiding a
+ * layer therefore repaints neither the body nor the other layers.</p>
+ *
+ * <p>Layers are created with {@link TextUI#addLayer(Element, int, int, int)}.
+ * Their position is in frame coordinates, with {@code (0, 0)} at the top-left
+ * cell of the drawn frame, and may lie partly outside it. A layer covers every
+ * cell of its element's box.</p>
+ */
+public class Layer {
+    private final TextUI ui;
+    private final Element element;
+    private final long order;
+
+    private int top;
+    private int left;
+    private int zIndex;
+    private boolean visible = true;
+
+    Layer(TextUI ui, Element element, int top, int left, int zIndex, long order) {
+        this.ui = ui;
+        this.element = element;
+        this.top = top;
+        this.left = left;
+        this.zIndex = zIndex;
+        this.order = order;
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the element drawn by this layer.
+     *
+     * @return the layer's element
+     */
+    public Element getElement() {
+        return this.element;
+    }
+
+    /**
+     * Returns the frame row of the layer's top edge.
+     *
+     * @return the top row
+     */
+    public int getTop() {
+        return this.top;
+    }
+
+    /**
+     * Returns the frame column of the layer's left edge.
+     *
+     * @return the left column
+     */
+    public int getLeft() {
+        return this.left;
+    }
+
+    /**
+     * Returns the stacking order of this layer; higher layers are drawn on top.
+     *
+     * @return the z-index
+     */
+    public int getZIndex() {
+        return this.zIndex;
+    }
+
+    /**
+     * Returns whether this layer is drawn.
+     *
+     * @return true if the layer is visible
+     */
+    public boolean isVisible() {
+        return this.visible;
+    }
+
+    // The tie-breaker between layers of the same z-index
+    long getOrder() {
+        return this.order;
+    }
+
+
+    // SETTERS
+    /**
+     * Moves this layer so that its top-left corner is on the given frame cell.
+     * Neither the layer nor the body is repainted.
+     *
+     * @param top  the frame row of the top edge
+     * @param left the frame column of the left edge
+     * @return this layer for chaining
+     */
+    public Layer moveTo(int top, int left) {
+        this.ui.update(() -> {
+            this.top = top;
+            this.left = left;
+        });
+        return this;
+    }
+
+    /**
+     * Changes the stacking order of this layer.
+     *
+     * @param zIndex the new z-index; higher layers are drawn on top
+     * @return this layer for chaining
+     */
+    public Layer setZIndex(int zIndex) {
+        this.ui.update(() -> {
+            this.zIndex = zIndex;
+            this.ui.sortLayers();
+        });
+        return this;
+    }
+
+    /**
+     * Shows or hides this layer. A hidden layer keeps its cached screen.
+     *
+     * @param visible true to draw the layer
+     * @return this layer for chaining
+     */
+    public Layer setVisible(boolean visible) {
+        this.ui.update(() -> this.visible = visible);
+        return this;
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Removes this layer from its TextUI. Does nothing if it was already removed.
+     */
+    public void remove() {
+        this.ui.removeLayer(this);
+    }
+}
@@ -0,0 +1,20 @@
+package textui;
+
+/**
+ * Specifies how {@link TextUI#draw()} writes frames to the terminal.
+ */
+public enum RenderMode {
+
+    /**
+     * Every frame is printed in full, line by line, below the previous output.
+     * Works on any output stream, including ones that are not terminals.
+     */
+    FULL,
+
+    /**
+     * Only the cells that changed since the previous frame are written, using
+     * ANSI cursor-positioning sequences. The first frame, and any frame after
+     * {@link TextUI#repaint()}, clears the terminal and is written in full.
+     */
+    DIFF;
+}
@@ -1,37 +1,570 @@
 package textui;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
 import textui.element.Element;
+import textui.element.Viewport;
+import textui.render.Cell;
+import textui.render.FrameBuffer;
+import textui.render.FrameBufferPool;
+import textui.render.FrameDiffer;
+import textui.render.FrameWriter;
+import textui.render.ScratchArena;
 
 /**
  * The TextUI class manages and renders a UI based on a root Element.
+ *
+ * <p>Frames are encoded into a reusable byte buffer and written with a single
+ * call, either to a stream or channel supplied by the caller or, by default,
+ * to {@link System#out}.</p>
+ *
+ * <p>By default {@link #draw()} renders and writes synchronously. Calling
+ * {@link #start(int)} instead starts a render thread that draws at most a given
+ * number of frames per second. While it runs, threads that change the UI do so
+ * through {@link #update(Runnable)} or call {@link #invalidate()} afterwards;
+ * they only mark the UI as stale and never wait for terminal output.</p>
+ *
+ * <p>A {@link Viewport} limits rendering to the part of the body that fits on
+ * the terminal; elements outside it are not painted at all. The visible part
+ * is kept between frames and only painted again once the body changes or the
+ * viewport moves.</p>
+ *
+ * <p>{@link Layer}s added with {@link #addLayer(Element, int, int, int)} are
+ * drawn over the body, each from its own cached screen, so overlays can be
+ * opened, closed and moved without repainting what is beneath them.</p>
+ *
+ * <p>Each TextUI recycles its frame buffers through a {@link FrameBufferPool}
+ * and renders every frame with a {@link ScratchArena} open, so a frame in the
+ * steady state allocates next to nothing.</p>
  */
 public class TextUI {
     private Element body;
+    private volatile RenderMode renderMode = RenderMode.FULL;
+    private volatile Viewport viewport;
+    private final FrameDiffer differ = new FrameDiffer();
+    private final FrameWriter writer = new FrameWriter();
+
+    // At most one of these is set; when neither is, frames go to System.out
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+
+    // Guards the element tree while it is being changed or rasterized, and the
+    // encoder while a frame is encoded and written. Neither is a monitor, so a
+    // virtual thread blocked on one, or writing while holding outputLock, does
+    // not pin its carrier thread. When both are held, outputLock comes first.
+    private final ReentrantLock treeLock = new ReentrantLock();
+    private final ReentrantLock outputLock = new ReentrantLock();
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    // The render thread runs while this still refers to it. Clearing it stops
+    // the thread, which is never interrupted: that would close an interruptible
+    // channel it is writing to.
+    private volatile Thread renderThread;
+
+    // Why the render thread died, reported by the next call to stop()
+    private volatile RuntimeException renderFailure;
+
+    // Buffers and temporaries reused from frame to frame
+    private final FrameBufferPool pool = new FrameBufferPool();
+    private final ScratchArena arena = new ScratchArena();
+
+    // The frame drawn when a viewport is set, and the viewport it shows. It is
+    // kept until the body changes or the viewport moves.
+    private FrameBuffer viewportBuffer = null;
+    private Viewport renderedViewport = null;
+
+    // Overlays from bottom to top, and the frame they are composited into
+    private final List<Layer> layers = new ArrayList<>();
+    private long layersAdded = 0;
+    private FrameBuffer compositeBuffer = null;
+
+    private static final Comparator<Layer> STACKING_ORDER =
+        Comparator.comparingInt(Layer::getZIndex).thenComparingLong(Layer::getOrder);
 
     /**
-     * Constructs a TextUI instance with the given root Element.
+     * Constructs a TextUI instance with the given root Element that draws to
+     * {@link System#out}.
      * 
      * @param body the root Element representing the UI body
      */
     public TextUI(Element body) {
         this.body = body; 
+        this.out = null;
+        this.channel = null;
+    }
+
+    /**
+     * Constructs a TextUI instance with the given root Element that draws to
+     * the given stream.
+     *
+     * @param body the root Element representing the UI body
+     * @param out  the stream frames are written to
+     */
+    public TextUI(Element body, OutputStream out) {
+        this.body = body;
+        this.out = out;
+        this.channel = null;
+    }
+
+    /**
+     * Constructs a TextUI instance with the given root Element that draws to
+     * the given channel.
+     *
+     * @param body    the root Element representing the UI body
+     * @param channel the channel frames are written to
+     */
+    public TextUI(Element body, WritableByteChannel channel) {
+        this.body = body;
+        this.out = null;
+        this.channel = channel;
+    }
+
+    /**
+     * Returns how frames are written to the terminal.
+     *
+     * @return the current render mode
+     */
+    public RenderMode getRenderMode() {
+        return this.renderMode;
+    }
+
+    /**
+     * Returns the part of the body that is drawn.
+     *
+     * @return the current viewport, or null if the whole body is drawn
+     */
+    public Viewport getViewport() {
+        return this.viewport;
+    }
+
+    /**
+     * Returns the layers drawn over the body, from bottom to top.
+     *
+     * @return a copy of the list of layers
+     */
+    public List<Layer> getLayers() {
+        this.treeLock.lock();
+        try {
+            return List.copyOf(this.layers);
+        } finally {
+            this.treeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the memory, in bytes, that the buffers this TextUI keeps take up
+     * when drawing the current frame. Every cell is a {@code long}, and the
+     * count covers the body's screen or viewport frame, the screens of the
+     * layers and of every cache boundary, the buffer kept by the render mode,
+     * and the encoded output of an unstyled frame.
+     *
+     * @return the buffer memory needed to draw the next frame
+     */
+    public long getBufferBytes() {
+        this.treeLock.lock();
+        try {
+            Viewport viewport = this.viewport;
+            int height = viewport == null ? this.body.getHeight() : viewport.height();
+            int width = viewport == null ? this.body.getWidth() : viewport.width();
+            long frameCells = (long) height * width;
+
+            // The body's screen, or the viewport buffer it is painted into
+            long cells = frameCells + this.body.getCachedCells();
+
+            if (!this.layers.isEmpty()) {
+                cells += frameCells;
+                for (Layer layer : this.layers) {
+                    Element element = layer.getElement();
+                    cells += (long) element.getHeight() * element.getWidth() + element.getCachedCells();
+                }
+            }
+
+            // The differ's copy of the previous frame
+            if (this.renderMode == RenderMode.DIFF) cells += frameCells;
+
+            long encoded = Math.max(this.writer.capacity(), FrameWriter.maxUnstyledFrameBytes(height, width));
+            return cells * Long.BYTES + encoded;
+        } finally {
+            this.treeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the background render thread is running.
+     *
+     * @return true if frames are being drawn by {@link #start(int)}
+     */
+    public boolean isRunning() {
+        return this.renderThread != null;
+    }
+
+    /**
+     * Sets how frames are written to the terminal. Switching modes makes the
+     * next frame a full repaint.
+     *
+     * @param renderMode the render mode to use
+     * @return this TextUI instance for chaining
+     */
+    public TextUI setRenderMode(RenderMode renderMode) {
+        this.outputLock.lock();
+        try {
+            this.renderMode = renderMode;
+            this.differ.invalidate();
+        } finally {
+            this.outputLock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Limits drawing to a part of the body, for example the rows and columns
+     * that fit on the terminal. Moving the viewport scrolls the body.
+     *
+     * @param viewport the part of the body to draw, or null to draw all of it
+     * @return this TextUI instance for chaining
+     */
+    public TextUI setViewport(Viewport viewport) {
+        this.viewport = viewport;
+        this.invalidate();
+        return this;
+    }
+
+    /**
+     * Draws an element over the body with its top-left corner on the given
+     * frame cell. The element must not also be part of the body.
+     *
+     * @param element the element to draw, such as a popup
+     * @param top     the frame row of the element's top edge
+     * @param left    the frame column of the element's left edge
+     * @param zIndex  the stacking order; higher layers are drawn on top
+     * @return the new layer, which can be moved, hidden or removed
+     */
+    public Layer addLayer(Element element, int top, int left, int zIndex) {
+        Layer layer;
+        this.treeLock.lock();
+        try {
+            layer = new Layer(this, element, top, left, zIndex, this.layersAdded++);
+            this.layers.add(layer);
+            this.sortLayers();
+        } finally {
+            this.treeLock.unlock();
+        }
+        this.invalidate();
+        return layer;
+    }
+
+    /**
+     * Stops drawing a layer. The body beneath it is not repainted.
+     *
+     * @param layer the layer to remove
+     */
+    public void removeLayer(Layer layer) {
+        this.treeLock.lock();
+        try {
+            this.layers.remove(layer);
+        } finally {
+            this.treeLock.unlock();
+        }
+        this.invalidate();
+    }
+
+    /**
+     * Forces the next call to {@link #draw()} to write the whole frame, even in
+     * {@link RenderMode#DIFF} mode. Use this when the terminal may have been
+     * changed by other output.
+     */
+    public void repaint() {
+        this.outputLock.lock();
+        try {
+            this.differ.invalidate();
+        } finally {
+            this.outputLock.unlock();
+        }
+        this.invalidate();
     }
 
     /**
-     * Draws the UI by printing the character screen representation of the root Element.
-     * This method retrieves the rendered screen from the root Element and prints it line by line.
+     * Draws the UI by writing the character screen representation of the root Element.
+     *
+     * <p>In {@link RenderMode#FULL} mode the rendered frame buffer is written line by
+     * line, followed by an empty line. In {@link RenderMode#DIFF} mode only the cells
+     * that changed since the previous call are written, at their positions on the
+     * terminal.</p>
+     *
+     * <p>If the render thread is running, this only marks the UI as stale and
+     * returns; the frame is drawn by the render thread.</p>
+     *
+     * <p>The element tree is only locked while the frame is rasterized and
+     * encoded, so {@link #update(Runnable)} never waits for the terminal.</p>
+     *
+     * @throws UncheckedIOException if writing to the stream or channel fails
      */
     public void draw() {
-        String output = "";
+        if (this.renderThread != null) {
+            this.invalidate();
+            return;
+        }
+
+        this.outputLock.lock();
+        try {
+            this.treeLock.lock();
+            try {
+                this.encode(this.render());
+            } finally {
+                this.treeLock.unlock();
+            }
+
+            this.flush();
+        } finally {
+            this.outputLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a change to the element tree while the render thread is not reading
+     * it, then marks the UI as stale. The caller waits at most for a frame to
+     * finish rasterizing and encoding, never for terminal output.
+     *
+     * @param change the code that modifies the elements of this UI
+     */
+    public void update(Runnable change) {
+        this.treeLock.lock();
+        try {
+            change.run();
+        } finally {
+            this.treeLock.unlock();
+        }
+        this.invalidate();
+    }
+
+    /**
+     * Marks the UI as stale so that the render thread draws a new frame.
+     * This does no rendering or I/O itself.
+     */
+    public void invalidate() {
+        this.stale.set(true);
+
+        Thread thread = this.renderThread;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    /**
+     * Starts a daemon thread that draws the UI whenever it is stale, at most
+     * {@code maxFramesPerSecond} times per second. Changes made between two
+     * frames are drawn together in the next one.
+     *
+     * <p>If rendering or writing a frame fails, the thread stops, {@link #draw()}
+     * goes back to drawing synchronously and the failure is thrown by the next
+     * call to {@link #stop()}.</p>
+     *
+     * @param maxFramesPerSecond the frame-rate cap
+     * @return this TextUI instance for chaining
+     * @throws IllegalArgumentException if the frame rate is not positive
+     * @throws IllegalStateException if the render thread is already running
+     */
+    public synchronized TextUI start(int maxFramesPerSecond) {
+        if (maxFramesPerSecond <= 0) {
+            throw new IllegalArgumentException("maxFramesPerSecond must be positive");
+        }
+
+        if (this.renderThread != null) {
+            throw new IllegalStateException("the render thread is already running");
+        }
 
-        List<List<Character>> screen = this.body.getScreen();
+        long frameNanos = 1_000_000_000L / maxFramesPerSecond;
 
-        for (List<Character> row : screen) {
-            for (char c : row) output += c;
-            output += '\n';
+        Thread thread = new Thread(() -> this.renderLoop(frameNanos), "textui-render");
+        thread.setDaemon(true);
+
+        this.stale.set(true);
+        this.renderFailure = null;
+        this.renderThread = thread;
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Stops the render thread and waits for it to finish the frame it is drawing.
+     * Does nothing if the render thread is not running.
+     *
+     * <p>The thread is not interrupted, so a channel it is writing to is left
+     * open.</p>
+     *
+     * @throws UncheckedIOException if the render thread stopped because writing
+     *         a frame failed
+     * @throws RuntimeException if the render thread stopped because rendering
+     *         a frame failed
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            thread = this.renderThread;
+            this.renderThread = null;
+        }
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        RuntimeException failure = this.renderFailure;
+        if (failure != null) {
+            this.renderFailure = null;
+            throw failure;
         }
+    }
 
-        System.out.println(output);
+    private void renderLoop(long frameNanos) {
+        Thread self = Thread.currentThread();
+
+        try {
+            this.renderFrames(self, frameNanos);
+        } catch (RuntimeException e) {
+            this.renderFailure = e;
+        } finally {
+            // After a failure, draw() must not keep waiting for a dead thread
+            synchronized (this) {
+                if (this.renderThread == self) this.renderThread = null;
+            }
+        }
+    }
+
+    private void renderFrames(Thread self, long frameNanos) {
+        while (this.renderThread == self) {
+            if (!this.stale.getAndSet(false)) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            long deadline = System.nanoTime() + frameNanos;
+
+            // The frame is encoded before the tree is released, so the encoded
+            // bytes are the only copy of it and no screen is copied per frame
+            this.outputLock.lock();
+            try {
+                this.treeLock.lock();
+                try {
+                    this.encode(this.render());
+                } finally {
+                    this.treeLock.unlock();
+                }
+
+                this.flush();
+            } finally {
+                this.outputLock.unlock();
+            }
+
+            // Cap the frame rate; invalidate() may unpark us early, so keep waiting
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0 && this.renderThread == self) {
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+    }
+
+    // Must be called while holding treeLock
+    private FrameBuffer render() {
+        Viewport viewport = this.viewport;
+
+        this.arena.open();
+        try {
+            FrameBuffer frame;
+            if (viewport == null) {
+                frame = this.body.getFrameBuffer();
+            } else {
+                if (this.body.isDirty() || !viewport.equals(this.renderedViewport)) {
+                    this.viewportBuffer = this.pool.resize(this.viewportBuffer, viewport.height(), viewport.width());
+                    this.body.renderTo(this.viewportBuffer, viewport);
+                    this.renderedViewport = viewport;
+                }
+                frame = this.viewportBuffer;
+            }
+
+            return this.layers.isEmpty() ? frame : this.composite(frame);
+        } finally {
+            this.arena.close();
+        }
+    }
+
+    // Copies the body's frame and draws the visible layers over it, bottom to
+    // top. Each layer's element only repaints itself if it has changed.
+    private FrameBuffer composite(FrameBuffer frame) {
+        this.compositeBuffer = this.pool.resize(this.compositeBuffer, frame.getHeight(), frame.getWidth());
+        this.compositeBuffer.copyFrom(frame, 0, 0);
+
+        for (Layer layer : this.layers) {
+            if (!layer.isVisible()) continue;
+
+            FrameBuffer screen = layer.getElement().getFrameBuffer();
+            this.clearCutCharacters(layer, screen.getHeight(), screen.getWidth());
+            this.compositeBuffer.copyFrom(screen, layer.getTop(), layer.getLeft());
+        }
+
+        return this.compositeBuffer;
+    }
+
+    // A wide character that a layer is about to cut in half cannot be shown:
+    // the half left uncovered, on either edge of the layer, becomes a space
+    private void clearCutCharacters(Layer layer, int height, int width) {
+        FrameBuffer composite = this.compositeBuffer;
+        int left = layer.getLeft();
+        int right = left + width;
+
+        int from = Math.max(0, layer.getTop());
+        int to = Math.min(composite.getHeight(), layer.getTop() + height);
+
+        for (int row = from; row < to; row++) {
+            if (composite.isContinuation(row, left)) {
+                this.clearCell(row, left - 1);
+            }
+            if (composite.isContinuation(row, right)) {
+                this.clearCell(row, right);
+            }
+        }
+    }
+
+    private void clearCell(int row, int col) {
+        FrameBuffer composite = this.compositeBuffer;
+        composite.setCell(row, col, Cell.of(' ', Cell.styleOf(composite.getCell(row, col))));
+    }
+
+    // Keeps layers in drawing order; must be called while holding treeLock
+    void sortLayers() {
+        this.layers.sort(STACKING_ORDER);
+    }
+
+    // Must be called while holding outputLock
+    private void encode(FrameBuffer screen) {
+        if (this.renderMode == RenderMode.DIFF) {
+            this.differ.diff(screen, this.writer);
+        } else {
+            this.writer.writeFrame(screen).writeLineSeparator();
+        }
+    }
+
+    // Writes the encoded frame; must be called while holding outputLock
+    private void flush() {
+        try {
+            if (this.channel != null) {
+                this.writer.writeTo(this.channel);
+            } else {
+                this.writer.writeTo(this.out != null ? this.out : System.out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,123 @@
+package textui.element;
+
+/**
+ * Specifies the characters an element's border is drawn with.
+ *
+ * <p>Every border cell is drawn with the glyph for the directions its lines
+ * leave the cell in: up, right, down and left, combined into a 4-bit mask
+ * ({@link #UP}, {@link #RIGHT}, {@link #DOWN}, {@link #LEFT}). Each style
+ * holds a 16-entry table from mask to glyph, so corners, edges and junctions
+ * are all a single lookup.</p>
+ *
+ * <p>The box-drawing styles join with borders of the same weight that are
+ * already in the buffer: the mask of the glyph found in a cell is merged with
+ * the mask of the border being drawn, so a corner drawn over an edge becomes a
+ * T-junction and two crossing edges become a cross.</p>
+ */
+public enum BorderStyle {
+
+    /**
+     * Every border cell is a {@code '#'}. Borders overwrite each other. This is
+     * the default.
+     */
+    ASCII(0, "################"),
+
+    /**
+     * Light lines with square corners: {@code \u250C\u2500\u2510}.
+     */
+    SINGLE(1, "\u2500\u2502\u2500\u2514\u2502\u2502\u250C\u251C\u2500\u2518\u2500\u2534\u2510\u2524\u252C\u253C"),
+
+    /**
+     * Double lines: {@code \u2554\u2550\u2557}.
+     */
+    DOUBLE(2, "\u2550\u2551\u2550\u255A\u2551\u2551\u2554\u2560\u2550\u255D\u2550\u2569\u2557\u2563\u2566\u256C"),
+
+    /**
+     * Light lines with rounded corners: {@code \u256D\u2500\u256E}. Joins with {@link #SINGLE}.
+     */
+    ROUNDED(1, "\u2500\u2502\u2500\u2570\u2502\u2502\u256D\u251C\u2500\u256F\u2500\u2534\u256E\u2524\u252C\u253C");
+
+    /**
+     * The bit of a junction mask for a line leaving the cell upwards.
+     */
+    public static final int UP = 1;
+
+    /**
+     * The bit of a junction mask for a line leaving the cell to the right.
+     */
+    public static final int RIGHT = 1 << 1;
+
+    /**
+     * The bit of a junction mask for a line leaving the cell downwards.
+     */
+    public static final int DOWN = 1 << 2;
+
+    /**
+     * The bit of a junction mask for a line leaving the cell to the left.
+     */
+    public static final int LEFT = 1 << 3;
+
+    // The Box Drawing block, U+2500 to U+257F
+    private static final char BOX_DRAWING_START = '\u2500';
+    private static final int BOX_DRAWING_SIZE = 0x80;
+
+    // For every glyph of the Box Drawing block used by a style: its weight
+    // in bits 4 and up and its mask in bits 0-3, or 0 if no style uses it
+    private static final int[] GLYPH_MASKS = new int[BOX_DRAWING_SIZE];
+
+    static {
+        for (BorderStyle style : values()) {
+            if (style.weight == 0) continue;
+
+            // Ascending masks, so a glyph shared by several masks keeps the one with most lines
+            for (int mask = 1; mask < 16; mask++) {
+                GLYPH_MASKS[style.junctions[mask] - BOX_DRAWING_START] = style.weight << 4 | mask;
+            }
+        }
+    }
+
+    private final int weight;
+    private final char[] junctions;
+
+    BorderStyle(int weight, String junctions) {
+        this.weight = weight;
+        this.junctions = junctions.toCharArray();
+    }
+
+    /**
+     * Returns the glyph for a border cell whose lines leave it in the given
+     * directions. A cell with no lines, such as a one-cell border, gets the
+     * horizontal edge.
+     *
+     * @param mask a combination of {@link #UP}, {@link #RIGHT}, {@link #DOWN} and {@link #LEFT}
+     * @return the glyph to draw
+     */
+    public char junction(int mask) {
+        return this.junctions[mask & 0xF];
+    }
+
+    /**
+     * Checks whether borders of this style join with the borders they meet
+     * instead of overwriting them.
+     *
+     * @return true for the box-drawing styles
+     */
+    public boolean joins() {
+        return this.weight != 0;
+    }
+
+    /**
+     * Returns the directions the lines of a glyph leave its cell in, if it is
+     * drawn by a style of the same weight as this one.
+     *
+     * @param c the character found in a cell
+     * @return the glyph's junction mask, or 0 if it is not a border of this weight
+     */
+    int maskOf(char c) {
+        int index = c - BOX_DRAWING_START;
+        if (this.weight == 0 || index < 0 || index >= BOX_DRAWING_SIZE) return 0;
+
+        int glyph = GLYPH_MASKS[index];
+        return glyph >> 4 == this.weight ? glyph & 0xF : 0;
+    }
+}
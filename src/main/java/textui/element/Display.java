@@ -23,5 +23,11 @@ public enum Display {
      * dynamically with other children under a flex-enabled parent.
      * This may affect alignment and distribution.
      */
-    FLEX;
+    FLEX,
+
+    /**
+     * Children are placed directly into the cells of a grid whose row and
+     * column tracks are set on the container; see {@link Track}.
+     */
+    GRID;
 }
@@ -2,11 +2,18 @@ package textui.element;
 
 import textui.exception.ChildrenNotAllowedException;
 import textui.exception.ValueCannotBeSetException;
-import textui.helper.Helper;
+import textui.render.FrameBuffer;
+import textui.render.ScratchArena;
+import textui.render.Style;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represents a UI element that can be rendered as text on a screen.
@@ -22,104 +29,44 @@ import java.util.concurrent.atomic.AtomicInteger;
  * are added to the element.</p>
  */
 public class Element {
-    private class ExtraSpacing {
-        private final boolean WIDTH;
-        private final FlexAlign ALIGNMENT;
-
-        public ExtraSpacing(boolean width, FlexAlign alignment) {
-            this.WIDTH = width;
-            this.ALIGNMENT = alignment;
-        }
-
-        private int getExtraSpaceAlongTheXAxis() {
-            int contentWidth = width;
-            AtomicInteger totalChildrenWidth = new AtomicInteger(0);
-            childElements.forEach(child -> totalChildrenWidth.addAndGet(child.getWidth()));
-            return contentWidth - totalChildrenWidth.get();
-        }
-
-        private int getExtraSpaceAlongTheYAxis(Element child) {
-            int contentHeight = height;
-            return contentHeight - child.getHeight();
-        }
-
-        private int getHeightForFlexStart(Element child) {
-            return 0;
-        }
-
-        private int getHeightForCenter(Element child) {
-            return this.getExtraSpaceAlongTheYAxis(child) / 2;
-        }
-
-        private int getHeightForFlexEnd(Element child) {
-            return this.getExtraSpaceAlongTheYAxis(child);
-        }
-
-        private int getWidthForFlexStart() {
-            return 0;
-        }
-
-        private int getWidthForFlexEnd() {
-            return this.getExtraSpaceAlongTheXAxis();
-        }
-
-        private int getWidthForCenter() {
-            return this.getExtraSpaceAlongTheXAxis() / 2;
-        }
-
-        private int getWidthForSpaceApart() {
-            return this.getExtraSpaceAlongTheXAxis() / (childElements.size()-1);
-        }
+    /**
+     * Paints one child subtree on a ForkJoin worker. Each task writes only to
+     * the region of the shared target that its layout box covers.
+     */
+    private static class PaintTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
 
-        private int getWidthForSpaceBetween() {
-            return this.getExtraSpaceAlongTheXAxis() / (childElements.size()+1);
-        }
+        // Tasks are never serialized; the fields are transient to say so
+        private final transient FrameBuffer target;
+        private final transient LayoutResult layout;
 
-        private int getForWidth(int step) {
-            switch (this.ALIGNMENT) {
-                case FLEX_START: return this.getWidthForFlexStart();
-                case FLEX_END: return this.getWidthForFlexEnd();
-                case CENTER: return this.getWidthForCenter();
-                case SPACE_APART: return step>0 ? this.getWidthForSpaceApart() : 0;
-                case SPACE_BETWEEN: return this.getWidthForSpaceBetween();
-                default: return 0;
-            }
+        public PaintTask(FrameBuffer target, LayoutResult layout) {
+            this.target = target;
+            this.layout = layout;
         }
 
-        private int getForHeight(Element child) {
-            switch (this.ALIGNMENT) {
-                case FLEX_START:
-                case SPACE_APART:
-                case SPACE_BETWEEN: 
-                    return this.getHeightForFlexStart(child);
-                case CENTER:
-                    return this.getHeightForCenter(child);
-                case FLEX_END:
-                    return this.getHeightForFlexEnd(child);
-                default:
-                    return 0;
-            }
+        @Override
+        protected void compute() {
+            this.layout.element().paint(this.target, this.layout);
         }
+    }
 
-        public int get(int step) {
-            if (this.WIDTH) return this.getForWidth(step);
-            else return 0;
-        }
+    // A run of cells [from, to) in one row of a buffer
+    @FunctionalInterface
+    private interface RowSpan {
+        void accept(int row, int from, int to);
+    }
 
-        public int get(Element child) {
-            if (!this.WIDTH) return this.getForHeight(child);
-            else return 0;
-        }
+    // Marks a measurement that has not been computed since the last change
+    private static final int NOT_MEASURED = Integer.MIN_VALUE;
 
-        public int addToPrevRowWidth(int step) {
-            if (this.ALIGNMENT == FlexAlign.SPACE_APART || this.ALIGNMENT == FlexAlign.SPACE_BETWEEN) {
-                return this.get(step);
-            } else {
-                return 0;
-            }
-        }
+    /**
+     * The flex basis that makes an element start from its own width.
+     */
+    public static final int AUTO = -1;
 
-    }
+    private static final LongAdder MEASURE_CACHE_HITS = new LongAdder();
+    private static final LongAdder MEASURE_CACHE_MISSES = new LongAdder();
 
     // VARIABLES
         /**
@@ -128,6 +75,12 @@ public class Element {
      */
     protected Border border = new Border(false, false, false, false);
 
+    /**
+     * The characters the border is drawn with.
+     * Defaults to {@link BorderStyle#ASCII}, which draws every border cell as '#'.
+     */
+    protected BorderStyle borderStyle = BorderStyle.ASCII;
+
     /**
      * The padding inside the element, specifying space between content and border.
      * Initialized with zero padding on all sides.
@@ -158,6 +111,65 @@ public class Element {
      */
     protected FlexAlign alignItems = FlexAlign.FLEX_START;
 
+    /**
+     * How much of a flex container's free space this element takes, relative
+     * to its siblings. Defaults to 0, which keeps the element at its basis.
+     */
+    protected int flexGrow = 0;
+
+    /**
+     * How much this element gives up, relative to its siblings and weighted by
+     * its basis, when the children of a flex container overflow it. Defaults
+     * to 0, which lets the element overflow rather than shrink.
+     */
+    protected int flexShrink = 0;
+
+    /**
+     * The width this element starts from in a flex container before growing or
+     * shrinking. Defaults to {@link #AUTO}, which uses {@link #getWidth()}.
+     */
+    protected int flexBasis = AUTO;
+
+    /**
+     * Whether a flex container breaks its children into several lines when
+     * they do not fit its width. Defaults to false, which keeps them on one line.
+     */
+    protected boolean flexWrap = false;
+
+    /**
+     * The column tracks of a grid container. Defaults to none, which gives a
+     * single column as wide as the widest child.
+     */
+    protected List<Track> gridColumns = List.of();
+
+    /**
+     * The row tracks of a grid container. Defaults to none; rows are added as
+     * auto tracks for the children placed in them.
+     */
+    protected List<Track> gridRows = List.of();
+
+    /**
+     * The first grid row this element is placed in. Defaults to {@link #AUTO},
+     * which places it in the next free cell after its siblings.
+     */
+    protected int gridRow = AUTO;
+
+    /**
+     * The first grid column this element is placed in. Defaults to {@link #AUTO},
+     * which places it in the next free cell after its siblings.
+     */
+    protected int gridColumn = AUTO;
+
+    /**
+     * The number of grid rows this element covers. Defaults to 1.
+     */
+    protected int gridRowSpan = 1;
+
+    /**
+     * The number of grid columns this element covers. Defaults to 1.
+     */
+    protected int gridColumnSpan = 1;
+
 
     // IF TRUE, THE EMPTY SPACES WILL BE FILLED WITH HASHES (#s)
     /**
@@ -166,6 +178,25 @@ public class Element {
      */
     protected boolean fill = false;
 
+    /**
+     * The colors and attributes this element's background, border and text
+     * are drawn with. Defaults to null, which keeps the style of the parent.
+     */
+    protected Style style = null;
+
+    /**
+     * The smallest area, in cells, a child must cover to be painted on its own
+     * ForkJoin task. Defaults to Integer.MAX_VALUE, which paints every child on
+     * the calling thread.
+     */
+    protected int parallelPaintThreshold = Integer.MAX_VALUE;
+
+    /**
+     * Whether this element keeps a copy of its painted cells so that it can be
+     * drawn again without repainting its subtree. Defaults to false.
+     */
+    protected boolean cacheBoundary = false;
+
     /**
      * The current height of the element, including content and spacing.
      * Defaults to 0.
@@ -221,10 +252,58 @@ public class Element {
     protected List<Element> childElements = new ArrayList<>();
 
     /**
-     * The 2D screen buffer representing the rendered characters of this element.
-     * Each inner list is a row of characters.
+     * The elements this element has been inserted into.
+     * Used to propagate changes up the tree; an element may be shared by
+     * more than one parent.
+     */
+    protected List<Element> parentElements = new ArrayList<>();
+
+    /**
+     * The screen buffer holding the rendered characters of this element.
+     * It is reused between renders and only grows when the element does.
      */
-    protected List<List<Character>> screen = new ArrayList<>();
+    protected FrameBuffer screen = new FrameBuffer();
+
+    /**
+     * Whether this element or one of its descendants has changed since it
+     * was last painted. A clean element reuses the cells cached in
+     * {@link #screen} instead of painting itself again.
+     */
+    private boolean dirty = true;
+
+    // Whether the layout caches of this element were dropped and its ancestors
+    // told since the last time this element or one of its parents filled one.
+    // While it is set, another change has nothing left to invalidate.
+    private boolean layoutDirty = false;
+
+    // The size of the box the cache was painted for, and the part of that box
+    // held in the screen: rows [cacheTop, cacheBottom), columns [cacheLeft, cacheRight).
+    // Cell (cacheTop, cacheLeft) of the box is cell (0, 0) of the screen.
+    private int cacheHeight;
+    private int cacheWidth;
+    private int cacheTop;
+    private int cacheLeft;
+    private int cacheBottom;
+    private int cacheRight;
+
+    // The style inherited from the parent when the cache was painted
+    private int cacheStyle;
+
+    // The resolved grid tracks, kept until this element or a child changes
+    private GridTracks gridTracks;
+
+    // Memoized results of getElementHeight(), getElementHeightInline() and
+    // getElementWidth(), cleared by markDirty()
+    private int measuredHeight = NOT_MEASURED;
+    private int measuredHeightInline = NOT_MEASURED;
+    private int measuredWidth = NOT_MEASURED;
+
+    // The last layout computed by arrange(), cleared by markDirty()
+    private LayoutResult layout;
+
+    // The layout whose children were last checked for overlap, and the result
+    private LayoutResult overlapCheckedLayout;
+    private boolean childrenOverlap;
 
 
     // CONTRUCTORS
@@ -266,6 +345,35 @@ public class Element {
 
 
     // GETTERS
+    /**
+     * Returns how many times, across all elements, a call to
+     * {@link #getElementHeight()}, {@link #getElementHeightInline()} or
+     * {@link #getElementWidth()} was answered from the measurement cache.
+     *
+     * @return the number of measurement cache hits since the last reset
+     */
+    public static long getMeasureCacheHits() {
+        return MEASURE_CACHE_HITS.sum();
+    }
+
+    /**
+     * Returns how many times, across all elements, a measurement had to be
+     * computed because it was not cached.
+     *
+     * @return the number of measurement cache misses since the last reset
+     */
+    public static long getMeasureCacheMisses() {
+        return MEASURE_CACHE_MISSES.sum();
+    }
+
+    /**
+     * Resets the measurement cache hit and miss counters to zero.
+     */
+    public static void resetMeasureCacheStats() {
+        MEASURE_CACHE_HITS.reset();
+        MEASURE_CACHE_MISSES.reset();
+    }
+
     /**
      * Returns the alignment setting for items along the cross axis in a flex container.
      *
@@ -275,6 +383,96 @@ public class Element {
         return this.alignItems;
     }
 
+    /**
+     * Returns how much of a flex container's free space this element takes.
+     *
+     * @return the flex grow factor
+     */
+    public int getFlexGrow() {
+        return this.flexGrow;
+    }
+
+    /**
+     * Returns how much this element shrinks when a flex container overflows.
+     *
+     * @return the flex shrink factor
+     */
+    public int getFlexShrink() {
+        return this.flexShrink;
+    }
+
+    /**
+     * Returns the width this element starts from in a flex container.
+     *
+     * @return the flex basis, or {@link #AUTO} if the element's own width is used
+     */
+    public int getFlexBasis() {
+        return this.flexBasis;
+    }
+
+    /**
+     * Returns whether this flex container wraps its children onto several lines.
+     *
+     * @return true if children that do not fit start a new line
+     */
+    public boolean getFlexWrap() {
+        return this.flexWrap;
+    }
+
+    /**
+     * Returns the column tracks of this grid container.
+     *
+     * @return an unmodifiable list of the column tracks
+     */
+    public List<Track> getGridColumns() {
+        return this.gridColumns;
+    }
+
+    /**
+     * Returns the row tracks of this grid container.
+     *
+     * @return an unmodifiable list of the row tracks
+     */
+    public List<Track> getGridRows() {
+        return this.gridRows;
+    }
+
+    /**
+     * Returns the first grid row this element is placed in.
+     *
+     * @return the row index, or {@link #AUTO} if the element is placed automatically
+     */
+    public int getGridRow() {
+        return this.gridRow;
+    }
+
+    /**
+     * Returns the first grid column this element is placed in.
+     *
+     * @return the column index, or {@link #AUTO} if the element is placed automatically
+     */
+    public int getGridColumn() {
+        return this.gridColumn;
+    }
+
+    /**
+     * Returns the number of grid rows this element covers.
+     *
+     * @return the row span
+     */
+    public int getGridRowSpan() {
+        return this.gridRowSpan;
+    }
+
+    /**
+     * Returns the number of grid columns this element covers.
+     *
+     * @return the column span
+     */
+    public int getGridColumnSpan() {
+        return this.gridColumnSpan;
+    }
+
     /**
      * Returns the Border object representing this element's border configuration.
      *
@@ -284,6 +482,15 @@ public class Element {
         return this.border;
     }
 
+    /**
+     * Returns the characters the border is drawn with.
+     *
+     * @return the border style of this element
+     */
+    public BorderStyle getBorderStyle() {
+        return this.borderStyle;
+    }
+
     /**
      * Returns the display mode of this element (e.g., block, inline, flex).
      *
@@ -302,6 +509,38 @@ public class Element {
         return this.fill;
     }
 
+    /**
+     * Returns the smallest child area, in cells, that is painted in parallel.
+     *
+     * @return the parallel paint threshold
+     */
+    public int getParallelPaintThreshold() {
+        return this.parallelPaintThreshold;
+    }
+
+    /**
+     * Returns whether this element caches its painted cells between renders.
+     *
+     * @return true if a clean subtree rooted here is copied instead of painted
+     */
+    public boolean getCacheBoundary() {
+        return this.cacheBoundary;
+    }
+
+    /**
+     * Returns the number of cells the cache boundaries in this element's
+     * subtree keep, counting each boundary at its full size.
+     *
+     * @return the cells cached at or below this element
+     */
+    public long getCachedCells() {
+        long cells = this.cacheBoundary ? (long) this.getHeight() * this.getWidth() : 0;
+        for (Element child : this.childElements) {
+            cells += child.getCachedCells();
+        }
+        return cells;
+    }
+
    /**
      * Returns the total height of the element including padding, margin, and borders.
      * The height is clamped between the minimum and maximum height settings.
@@ -382,15 +621,41 @@ public class Element {
         return this.padding;
     }
 
+    /**
+     * Returns the rendered screen of the element.
+     * This method triggers a printScreen call to update the screen before returning it.
+     *
+     * <p>The returned buffer is owned by this element and is overwritten by the
+     * next render.</p>
+     *
+     * @return the screen buffer of this element
+     */
+    public FrameBuffer getFrameBuffer() {
+        this.printScreen();
+        return this.screen;
+    }
+
     /**
      * Returns the current screen buffer of the element as a list of rows of characters.
      * This method triggers a printScreen call to update the screen before returning it.
      *
+     * <p>This is a compatibility view built from {@link #getFrameBuffer()}; every
+     * call copies the screen into new lists, so renderers should prefer the
+     * frame buffer.</p>
+     *
      * @return the screen buffer as a list of character rows
      */
     public List<List<Character>> getScreen() {
-        this.printScreen();
-        return this.screen;
+        return this.getFrameBuffer().toList();
+    }
+
+    /**
+     * Returns the style this element is drawn with.
+     *
+     * @return the style, or null if the element keeps its parent's style
+     */
+    public Style getStyle() {
+        return this.style;
     }
 
     /**
@@ -410,6 +675,15 @@ public class Element {
         return Math.min(Math.max(this.minWidth, totalWidth), this.maxWidth);
     }
 
+    /**
+     * Returns whether this element has changed since it was last painted.
+     *
+     * @return true if the element must be painted again on the next render
+     */
+    public boolean isDirty() {
+        return this.dirty;
+    }
+
 
 
     // SETTERS
@@ -422,6 +696,7 @@ public class Element {
     public Element setHeight(int height) {
         this.height = height;
         this.heightSet = true;
+        this.markDirty();
         return this;
     }
 
@@ -434,6 +709,7 @@ public class Element {
     public Element setWidth(int width) {
         this.width = width;
         this.widthSet = true;
+        this.markDirty();
         return this;
     }
 
@@ -445,6 +721,7 @@ public class Element {
      */
     public Element setMinHeight(int height) {
         this.minHeight = height;
+        this.markDirty();
         return this;
     }
 
@@ -456,6 +733,7 @@ public class Element {
      */
     public Element setMaxHeight(int height) {
         this.maxHeight = height;
+        this.markDirty();
         return this;
     }
 
@@ -467,6 +745,7 @@ public class Element {
      */
     public Element setMinWidth(int width) {
         this.minWidth = width;
+        this.markDirty();
         return this;
     }
 
@@ -478,6 +757,7 @@ public class Element {
      */
     public Element setMaxWidth(int width) {
         this.maxWidth = width;
+        this.markDirty();
         return this;
     }
 
@@ -489,6 +769,7 @@ public class Element {
      */
     public Element setJustifyContent(FlexAlign justifyContent) {
         this.justifyContent = justifyContent;
+        this.markDirty();
         return this;
     }
 
@@ -500,105 +781,302 @@ public class Element {
      */
     public Element setAlignItems(FlexAlign alignItems) {
         this.alignItems = alignItems;
+        this.markDirty();
         return this;
     }
 
     /**
-     * Sets whether this element should fill the available space.
+     * Sets how much of a flex container's free space this element takes,
+     * relative to the grow factors of its siblings.
      *
-     * @param fill true to fill available space, false otherwise
+     * @param flexGrow the grow factor; 0 keeps the element at its basis
      * @return this element instance for chaining
+     * @throws IllegalArgumentException if the factor is negative
      */
-    public Element setFill(boolean fill) {
-        this.fill = fill;
+    public Element setFlexGrow(int flexGrow) {
+        if (flexGrow < 0) {
+            throw new IllegalArgumentException("flexGrow cannot be negative");
+        }
+
+        this.flexGrow = flexGrow;
+        this.markDirty();
         return this;
     }
 
     /**
-     * Sets the border on all sides of this element to true.
+     * Sets how much this element shrinks when the children of a flex container
+     * overflow it, relative to its siblings and weighted by its basis.
      *
+     * @param flexShrink the shrink factor; 0 lets the element overflow
      * @return this element instance for chaining
+     * @throws IllegalArgumentException if the factor is negative
      */
-    public Element setBorder() {
-        return this.setBorder(true, true);
+    public Element setFlexShrink(int flexShrink) {
+        if (flexShrink < 0) {
+            throw new IllegalArgumentException("flexShrink cannot be negative");
+        }
+
+        this.flexShrink = flexShrink;
+        this.markDirty();
+        return this;
     }
 
     /**
-     * Sets the border for top and bottom and right and left sides of this element.
+     * Sets the width this element starts from in a flex container before it
+     * grows or shrinks.
      *
-     * @param topAndBottom true to set border on top and bottom sides
-     * @param rightAndLeft true to set border on right and left sides
+     * @param flexBasis the basis in columns, or {@link #AUTO} to use {@link #getWidth()}
      * @return this element instance for chaining
+     * @throws IllegalArgumentException if the basis is negative and not {@link #AUTO}
      */
-    public Element setBorder(boolean topAndBottom, boolean rightAndLeft) {
-        return this.setBorder(topAndBottom, rightAndLeft, topAndBottom, rightAndLeft);
+    public Element setFlexBasis(int flexBasis) {
+        if (flexBasis < AUTO) {
+            throw new IllegalArgumentException("flexBasis must be AUTO or at least 0");
+        }
+
+        this.flexBasis = flexBasis;
+        this.markDirty();
+        return this;
     }
 
     /**
-     * Sets the border individually on each side of this element.
+     * Sets whether this flex container breaks its children into lines. Each
+     * line holds as many children as fit the width, is as tall as its tallest
+     * child and is aligned with {@link #justifyContent} and {@link #alignItems}
+     * on its own.
      *
-     * @param top    true to set border on the top side
-     * @param right  true to set border on the right side
-     * @param bottom true to set border on the bottom side
-     * @param left   true to set border on the left side
+     * @param flexWrap true to wrap children that do not fit onto a new line
      * @return this element instance for chaining
      */
-    public Element setBorder(boolean top, boolean right, boolean bottom, boolean left) {
-        this.border = new Border(top, right, bottom, left);
+    public Element setFlexWrap(boolean flexWrap) {
+        this.flexWrap = flexWrap;
+        this.markDirty();
         return this;
     }
 
     /**
-     * Sets uniform padding on all four sides of this element.
+     * Sets the column tracks of this grid container, from left to right.
      *
-     * @param padding the padding size to apply on top, right, bottom, and left
+     * @param columns the column tracks
      * @return this element instance for chaining
-     * @throws ValueCannotBeSetException if padding is set after children are inserted
      */
-    public Element setPadding(int padding) throws ValueCannotBeSetException {
-        return this.setPadding(padding, padding);
+    public Element setGridColumns(Track... columns) {
+        this.gridColumns = List.of(columns);
+        this.markDirty();
+        return this;
     }
 
     /**
-     * Sets padding on top and bottom and right and left sides of this element.
+     * Sets the row tracks of this grid container, from top to bottom.
      *
-     * @param topAndBottom the padding size to apply on top and bottom sides
-     * @param rightAndLeft the padding size to apply on right and left sides
+     * @param rows the row tracks
      * @return this element instance for chaining
-     * @throws ValueCannotBeSetException if padding is set after children are inserted
      */
-    public Element setPadding(int topAndBottom, int rightAndLeft) throws ValueCannotBeSetException {
-        return this.setPadding(topAndBottom, rightAndLeft, topAndBottom, rightAndLeft);
+    public Element setGridRows(Track... rows) {
+        this.gridRows = List.of(rows);
+        this.markDirty();
+        return this;
     }
 
     /**
-     * Sets padding individually on each side of this element.
+     * Places this element in a cell of its parent grid.
      *
-     * @param top    padding size on the top side
-     * @param right  padding size on the right side
-     * @param bottom padding size on the bottom side
-     * @param left   padding size on the left side
+     * @param row    the first row, or {@link #AUTO} to place the element automatically
+     * @param column the first column, or {@link #AUTO} to place the element automatically
      * @return this element instance for chaining
-     * @throws ValueCannotBeSetException if padding is set after children are inserted
+     * @throws IllegalArgumentException if an index is negative and not {@link #AUTO}
      */
-    public Element setPadding(int top, int right, int bottom, int left) throws ValueCannotBeSetException {
-        if (this.childElements.size() > 0) {
-            throw new ValueCannotBeSetException("padding cannot be set after inserting a child");
+    public Element setGridCell(int row, int column) {
+        if (row < AUTO || column < AUTO) {
+            throw new IllegalArgumentException("grid cells must be AUTO or at least 0");
         }
 
-        this.padding = new Padding(top, right, bottom, left);
+        this.gridRow = row;
+        this.gridColumn = column;
+        this.markDirty();
         return this;
     }
 
     /**
-     * Sets uniform margin on all four sides of this element.
+     * Sets how many rows and columns of its parent grid this element covers.
      *
-     * @param margin the margin size to apply on top, right, bottom, and left
+     * @param rows    the number of rows
+     * @param columns the number of columns
      * @return this element instance for chaining
-     * @throws ValueCannotBeSetException if margin is set after children are inserted
+     * @throws IllegalArgumentException if a span is not positive
      */
-    public Element setMargin(int margin) throws ValueCannotBeSetException {
-        return this.setMargin(margin, margin);
+    public Element setGridSpan(int rows, int columns) {
+        if (rows < 1 || columns < 1) {
+            throw new IllegalArgumentException("grid spans must be positive");
+        }
+
+        this.gridRowSpan = rows;
+        this.gridColumnSpan = columns;
+        this.markDirty();
+        return this;
+    }
+
+    /**
+     * Sets whether this element should fill the available space.
+     *
+     * @param fill true to fill available space, false otherwise
+     * @return this element instance for chaining
+     */
+    public Element setFill(boolean fill) {
+        this.fill = fill;
+        this.markPaintDirty();
+        return this;
+    }
+
+    /**
+     * Sets the colors and attributes this element is drawn with. Children
+     * without a style of their own are drawn with it as well.
+     *
+     * @param style the style to draw with, or null to keep the parent's style
+     * @return this element instance for chaining
+     */
+    public Element setStyle(Style style) {
+        this.style = style;
+        this.markPaintDirty();
+        return this;
+    }
+
+    /**
+     * Enables parallel painting of this element's children. Children whose box
+     * covers at least {@code cells} cells are painted concurrently on the common
+     * ForkJoin pool, as long as no two children overlap; smaller children are
+     * painted on the calling thread. The output is the same as painting the
+     * children one after another.
+     *
+     * @param cells the smallest child area to paint on its own task,
+     *              or Integer.MAX_VALUE to paint sequentially
+     * @return this element instance for chaining
+     */
+    public Element setParallelPaintThreshold(int cells) {
+        this.parallelPaintThreshold = cells;
+        return this;
+    }
+
+    /**
+     * Makes this element a cache boundary. A boundary keeps a copy of the cells
+     * it painted, and while nothing in its subtree changes it copies them back
+     * instead of painting the subtree again.
+     *
+     * <p>The copy costs as much memory as the element's visible area, so mark
+     * the subtrees that are expensive to paint and rarely change, such as a
+     * static panel next to a live counter. The root passed to
+     * {@link #printScreen()} always reuses its screen, whether it is a boundary
+     * or not.</p>
+     *
+     * @param cacheBoundary true to cache this element's painted cells
+     * @return this element instance for chaining
+     */
+    public Element setCacheBoundary(boolean cacheBoundary) {
+        this.cacheBoundary = cacheBoundary;
+        this.markPaintDirty();
+        return this;
+    }
+
+    /**
+     * Sets the border on all sides of this element to true.
+     *
+     * @return this element instance for chaining
+     */
+    public Element setBorder() {
+        return this.setBorder(true, true);
+    }
+
+    /**
+     * Sets the border for top and bottom and right and left sides of this element.
+     *
+     * @param topAndBottom true to set border on top and bottom sides
+     * @param rightAndLeft true to set border on right and left sides
+     * @return this element instance for chaining
+     */
+    public Element setBorder(boolean topAndBottom, boolean rightAndLeft) {
+        return this.setBorder(topAndBottom, rightAndLeft, topAndBottom, rightAndLeft);
+    }
+
+    /**
+     * Sets the border individually on each side of this element.
+     *
+     * @param top    true to set border on the top side
+     * @param right  true to set border on the right side
+     * @param bottom true to set border on the bottom side
+     * @param left   true to set border on the left side
+     * @return this element instance for chaining
+     */
+    public Element setBorder(boolean top, boolean right, boolean bottom, boolean left) {
+        this.border = new Border(top, right, bottom, left);
+        this.markDirty();
+        return this;
+    }
+
+    /**
+     * Sets the characters the border is drawn with. The box-drawing styles
+     * join with borders of the same weight that they meet.
+     *
+     * @param borderStyle the style to draw the border with
+     * @return this element instance for chaining
+     */
+    public Element setBorderStyle(BorderStyle borderStyle) {
+        this.borderStyle = borderStyle;
+        this.markPaintDirty();
+        return this;
+    }
+
+    /**
+     * Sets uniform padding on all four sides of this element.
+     *
+     * @param padding the padding size to apply on top, right, bottom, and left
+     * @return this element instance for chaining
+     * @throws ValueCannotBeSetException if padding is set after children are inserted
+     */
+    public Element setPadding(int padding) throws ValueCannotBeSetException {
+        return this.setPadding(padding, padding);
+    }
+
+    /**
+     * Sets padding on top and bottom and right and left sides of this element.
+     *
+     * @param topAndBottom the padding size to apply on top and bottom sides
+     * @param rightAndLeft the padding size to apply on right and left sides
+     * @return this element instance for chaining
+     * @throws ValueCannotBeSetException if padding is set after children are inserted
+     */
+    public Element setPadding(int topAndBottom, int rightAndLeft) throws ValueCannotBeSetException {
+        return this.setPadding(topAndBottom, rightAndLeft, topAndBottom, rightAndLeft);
+    }
+
+    /**
+     * Sets padding individually on each side of this element.
+     *
+     * @param top    padding size on the top side
+     * @param right  padding size on the right side
+     * @param bottom padding size on the bottom side
+     * @param left   padding size on the left side
+     * @return this element instance for chaining
+     * @throws ValueCannotBeSetException if padding is set after children are inserted
+     */
+    public Element setPadding(int top, int right, int bottom, int left) throws ValueCannotBeSetException {
+        if (this.childElements.size() > 0) {
+            throw new ValueCannotBeSetException("padding cannot be set after inserting a child");
+        }
+
+        this.padding = new Padding(top, right, bottom, left);
+        this.markDirty();
+        return this;
+    }
+
+    /**
+     * Sets uniform margin on all four sides of this element.
+     *
+     * @param margin the margin size to apply on top, right, bottom, and left
+     * @return this element instance for chaining
+     * @throws ValueCannotBeSetException if margin is set after children are inserted
+     */
+    public Element setMargin(int margin) throws ValueCannotBeSetException {
+        return this.setMargin(margin, margin);
     }
 
     /**
@@ -629,6 +1107,7 @@ public class Element {
         }
 
         this.margin = new Margin(top, right, bottom, left);
+        this.markDirty();
         return this;
     }
 
@@ -645,112 +1124,282 @@ public class Element {
         }
 
         this.display = display;
+        this.markDirty();
         return this;
     }
 
 
     // BEHAVIOR METHODS
 
+    /**
+     * Marks this element as changed in a way that can change its size or the
+     * position of its children, so that it is laid out and painted again on
+     * the next render, and propagates the mark to every ancestor. Setters call
+     * this; subclasses should call it whenever they change how the element is
+     * measured or laid out.
+     *
+     * Cached measurements and layouts are dropped along the way, since such a
+     * change can change the size of all of its ancestors. The walk stops at an
+     * element whose caches were already dropped, since its ancestors' were too.
+     */
+    protected void markDirty() {
+        this.dirty = true;
+        if (this.layoutDirty) return;
+
+        this.layoutDirty = true;
+        this.measuredHeight = NOT_MEASURED;
+        this.measuredHeightInline = NOT_MEASURED;
+        this.measuredWidth = NOT_MEASURED;
+        this.layout = null;
+        this.overlapCheckedLayout = null;
+        this.gridTracks = null;
+
+        for (Element parent : this.parentElements) {
+            parent.markDirty();
+        }
+    }
+
+    /**
+     * Marks this element as changed in a way that only changes the cells it
+     * draws, such as its style or text in a box of fixed size, so that it is
+     * painted again on the next render without being laid out again. The mark
+     * is propagated to every ancestor, stopping at one that is already dirty.
+     */
+    protected void markPaintDirty() {
+        if (this.dirty) return;
+
+        this.dirty = true;
+        for (Element parent : this.parentElements) {
+            parent.markPaintDirty();
+        }
+    }
+
+    // Called whenever a layout cache of this element is filled. The cache may
+    // depend on the element and on its children, so a change to any of them
+    // must be reported to the ancestors again.
+    private void keepLayout() {
+        this.layoutDirty = false;
+        for (Element child : this.childElements) {
+            child.layoutDirty = false;
+        }
+    }
+
     /**
      * Adds borders to the element's screen buffer based on the border settings.
      * Calls the respective methods to add top, right, bottom, and left borders
      * if they are enabled in the {@link #border} property.
      */
     protected void addBorder() {
-        if (this.border.top()) this.addTopBorder();
-        if (this.border.right()) this.addRightBorder();
-        if (this.border.bottom()) this.addBottomBorder();
-        if (this.border.left()) this.addLeftBorder();
+        this.addBorder(this.screen);
+    }
+
+    /**
+     * Adds borders to the given buffer based on the border settings.
+     * The buffer's top-left cell is taken to be this element's top-left corner.
+     *
+     * @param target the buffer to draw the borders into
+     */
+    protected void addBorder(FrameBuffer target) {
+        if (this.joinsBorder()) {
+            this.addJoinedBorder(target);
+            return;
+        }
+
+        if (this.border.top()) this.addTopBorder(target);
+        if (this.border.right()) this.addRightBorder(target);
+        if (this.border.bottom()) this.addBottomBorder(target);
+        if (this.border.left()) this.addLeftBorder(target);
     }
 
-    private void addBottomBorder() {
-        int height = this.getHeight();
+    private boolean joinsBorder() {
+        return this.borderStyle.joins()
+            && (this.border.top() || this.border.right() || this.border.bottom() || this.border.left());
+    }
 
-        int bottomIndex = height - this.margin.bottom() - 1;
-        List<Character> bottom = this.screen.get(bottomIndex);
+    // Draws a box-drawing border, merging every cell with the glyph already under it
+    private void addJoinedBorder(FrameBuffer target) {
+        int top = this.margin.top();
+        int left = this.margin.left();
+        int bottom = target.getHeight() - this.margin.bottom() - 1;
+        int right = target.getWidth() - this.margin.right() - 1;
+        if (top > bottom || left > right) return;
+
+        for (int row : new int[] { top, bottom }) {
+            boolean drawn = row == top ? this.border.top() : this.border.bottom() && bottom != top;
+            if (!drawn) continue;
+
+            this.joinBorderCell(target, row, left, top, left, bottom, right);
+            this.joinBorderRun(target, row, left + 1, right);
+            if (right != left) this.joinBorderCell(target, row, right, top, left, bottom, right);
+        }
 
-        int start = this.margin.left();
-        int end = bottom.size() - this.margin.right();
+        int from = this.border.top() ? top + 1 : top;
+        int to = this.border.bottom() ? bottom : bottom + 1;
 
-        for (int i = start; i < end; i++) {
-            bottom.set(i, '#');
+        for (int col : new int[] { left, right }) {
+            boolean drawn = col == left ? this.border.left() : this.border.right() && right != left;
+            if (!drawn) continue;
+
+            for (int row = from; row < to; row++) {
+                this.joinBorderCell(target, row, col, top, left, bottom, right);
+            }
         }
     }
 
-    private void addLeftBorder() {
-        int start = this.margin.top();
-        int end = this.screen.size() - this.margin.bottom();
+    // Draws the middle of a horizontal edge, with a bulk fill unless it crosses other borders
+    private void joinBorderRun(FrameBuffer target, int row, int from, int to) {
+        if (row < target.getClipTop() || row >= target.getClipBottom()) return;
 
-        for (int i = start; i < end; i++) {
-            List<Character> row = this.screen.get(i);
+        int start = Math.max(from, target.getClipLeft());
+        int end = Math.min(to, target.getClipRight());
+        char edge = this.borderStyle.junction(BorderStyle.LEFT | BorderStyle.RIGHT);
+
+        for (int col = start; col < end; col++) {
+            int mask = this.borderStyle.maskOf(target.get(row, col));
+            if (mask == 0) continue;
 
-            int index = this.margin.left();
-            row.set(index, '#');
+            target.fillRow(row, start, col, edge);
+            target.set(row, col, this.borderStyle.junction(mask | BorderStyle.LEFT | BorderStyle.RIGHT));
+            start = col + 1;
         }
+
+        target.fillRow(row, start, end, edge);
     }
 
-    private void addRightBorder() {
-        int width = this.getWidth();
+    private void joinBorderCell(FrameBuffer target, int row, int col, int top, int left, int bottom, int right) {
+        if (!target.contains(row, col)) return;
 
-        int start = this.margin.top();
-        int end = this.screen.size() - this.margin.bottom();
+        int mask = 0;
+        if ((this.border.top() && row == top) || (this.border.bottom() && row == bottom)) {
+            if (col > left) mask |= BorderStyle.LEFT;
+            if (col < right) mask |= BorderStyle.RIGHT;
+        }
+        if ((this.border.left() && col == left) || (this.border.right() && col == right)) {
+            if (row > top) mask |= BorderStyle.UP;
+            if (row < bottom) mask |= BorderStyle.DOWN;
+        }
 
-        for (int i = start; i < end; i++) {
-            List<Character> row = this.screen.get(i);
+        mask |= this.borderStyle.maskOf(target.get(row, col));
+        target.set(row, col, this.borderStyle.junction(mask));
+    }
+
+    // Copies the cached cells that are not part of the border, then joins the
+    // border again with whatever is beneath it now. Called with the cache locked.
+    private void copyCacheAroundBorder(FrameBuffer target) {
+        this.forEachCellOutsideBorder(target, (row, from, to) -> {
+            if (from >= to) return;
+
+            FrameBuffer cached = ScratchArena.scratchRegion(
+                this.screen, row - this.cacheTop, from - this.cacheLeft, 1, to - from);
+            ScratchArena.scratchRegion(target, row, from, 1, to - from).copyFrom(cached, 0, 0);
+        });
+
+        if (this.style != null) target.setStyle(this.style.pack());
+        this.addJoinedBorder(target);
+    }
 
-            int index = width - this.margin.right() - 1;
-            row.set(index, '#');
+    // Calls span for every run of visible cells in a row that is not part of
+    // this element's border
+    private void forEachCellOutsideBorder(FrameBuffer target, RowSpan span) {
+        int top = this.margin.top();
+        int left = this.margin.left();
+        int bottom = target.getHeight() - this.margin.bottom() - 1;
+        int right = target.getWidth() - this.margin.right() - 1;
+
+        for (int row = target.getClipTop(); row < target.getClipBottom(); row++) {
+            int from = target.getClipLeft();
+            int to = target.getClipRight();
+
+            if (row < top || row > bottom || left > right) {
+                span.accept(row, from, to);
+            } else if ((this.border.top() && row == top) || (this.border.bottom() && row == bottom)) {
+                span.accept(row, from, Math.min(to, left));
+                span.accept(row, Math.max(from, right + 1), to);
+            } else {
+                int start = from;
+                if (this.border.left() && left >= start && left < to) {
+                    span.accept(row, start, left);
+                    start = left + 1;
+                }
+                if (this.border.right() && right >= start && right < to) {
+                    span.accept(row, start, right);
+                    start = right + 1;
+                }
+                span.accept(row, start, to);
+            }
         }
     }
 
-    private void addTopBorder() {
-        int topIndex = this.margin.top();
-        List<Character> top = this.screen.get(topIndex);
+    private void addBottomBorder(FrameBuffer target) {
+        int bottomIndex = target.getHeight() - this.margin.bottom() - 1;
 
         int start = this.margin.left();
-        int end = top.size() - this.margin.right();
+        int end = target.getWidth() - this.margin.right();
 
-        for (int i = start; i < end; i++) {
-            top.set(i, '#');
-        }
+        target.fillRow(bottomIndex, start, end, '#');
     }
 
+    private void addLeftBorder(FrameBuffer target) {
+        int start = this.margin.top();
+        int end = target.getHeight() - this.margin.bottom();
 
-    private void addScreensUsingInlineMethod() {
+        target.fillColumn(this.margin.left(), start, end, '#');
+    }
+
+    private void addRightBorder(FrameBuffer target) {
+        int start = this.margin.top();
+        int end = target.getHeight() - this.margin.bottom();
+
+        int index = target.getWidth() - this.margin.right() - 1;
+        target.fillColumn(index, start, end, '#');
+    }
+
+    private void addTopBorder(FrameBuffer target) {
+        int start = this.margin.left();
+        int end = target.getWidth() - this.margin.right();
+
+        target.fillRow(this.margin.top(), start, end, '#');
+    }
+
+
+    private void arrangeUsingInlineMethod(int top, int left, List<LayoutResult> children) {
         int prevChildHeight = 0;
         int prevRowWidth = 0;
-        List<Integer> rowChildHeights = new ArrayList<>();
+        // The tallest child placed in the current row
+        int rowHeight = 0;
 
         for (int i = 0; i < this.childElements.size(); i++) {
             Element child = this.childElements.get(i);
+            int childHeight = child.getHeight();
+            int childWidth = child.getWidth();
 
-            if ((this.width-prevRowWidth) >= child.getWidth()) {
+            if ((this.width-prevRowWidth) >= childWidth) {
                 int heightStep = prevChildHeight + this.padding.top();
                 heightStep = heightStep + (this.border.top() ? 1 : 0);
 
                 int widthStep = prevRowWidth + this.padding.left();
                 widthStep = widthStep + (this.border.left() ? 1 : 0);
 
-                this.printChildScreen(child, heightStep, widthStep);
+                children.add(child.arrange(top + heightStep, left + widthStep, childHeight, childWidth));
 
-                prevRowWidth += child.getWidth();
-                rowChildHeights.add(child.getHeight());
+                prevRowWidth += childWidth;
+                rowHeight = Math.max(rowHeight, childHeight);
             } else {
-                prevChildHeight += Helper.findLargestInList(rowChildHeights);
-                rowChildHeights.clear();
+                prevChildHeight += rowHeight;
+                rowHeight = 0;
 
-                if (this.height-prevChildHeight < child.getHeight()) return;
+                if (this.height-prevChildHeight < childHeight) return;
 
                 int heightStep = prevChildHeight + this.padding.top() + (this.border.top() ? 1 : 0);
                 int widthStep = this.padding.left() + (this.border.left() ? 1 : 0);
-                this.printChildScreen(child, heightStep, widthStep);
+                children.add(child.arrange(top + heightStep, left + widthStep, childHeight, childWidth));
 
-                prevRowWidth = child.getWidth();
+                prevRowWidth = childWidth;
             }
         }
     }
 
-    private void addScreensUsingBlockMethod() {
+    private void arrangeUsingBlockMethod(int top, int left, List<LayoutResult> children) {
         int prevChildHeight = 0;
         for (int i = 0; i < childElements.size(); i++) {
             Element child = childElements.get(i);
@@ -761,33 +1410,129 @@ public class Element {
             int borderLeft = this.border.left() ? 1 : 0;
             int widthStep = this.padding.left() + borderLeft;
 
-            this.printChildScreen(child, heightStep, widthStep);
+            int childHeight = child.getHeight();
+            children.add(child.arrange(top + heightStep, left + widthStep, childHeight, child.getWidth()));
 
-            prevChildHeight += child.getHeight();
+            prevChildHeight += childHeight;
         }
     }
 
-    private void addScreensUsingFlexMethod() {
-        int prevChildHeight = 0;
-        int prevRowWidth = 0;
-        List<Integer> rowChildHeights = new ArrayList<>();
+    private void arrangeUsingFlexMethod(int top, int left, List<LayoutResult> children) {
+        int count = this.childElements.size();
 
-        ExtraSpacing widthSpacing = new ExtraSpacing(true, this.justifyContent);
-        ExtraSpacing heightSpacing = new ExtraSpacing(false, this.alignItems);
+        int[] bases = ScratchArena.scratchInts(count);
+        int[] grows = ScratchArena.scratchInts(count);
+        int[] shrinks = ScratchArena.scratchInts(count);
+        int[] widths = ScratchArena.scratchInts(count);
+        int[] offsets = ScratchArena.scratchInts(count);
 
-        for (int i = 0; i < this.childElements.size(); i++) {
+        int[] heights = ScratchArena.scratchInts(count);
+
+        for (int i = 0; i < count; i++) {
             Element child = this.childElements.get(i);
+            bases[i] = child.flexBasis == AUTO ? child.getWidth() : child.flexBasis;
+            grows[i] = child.flexGrow;
+            shrinks[i] = child.flexShrink;
+            heights[i] = child.getHeight();
+        }
+
+        int borderTop = this.border.top() ? 1 : 0;
+        int borderLeft = this.border.left() ? 1 : 0;
+
+        // Without wrapping there is a single line as tall as the element
+        int lineTop = 0;
+        for (int start = 0; start < count; ) {
+            int end = this.flexWrap ? this.getFlexLineEnd(bases, start, count) : count;
+            int lineHeight = this.flexWrap ? this.getFlexLineHeight(heights, start, end) : this.height;
 
-            int heightStep = heightSpacing.get(child)+prevChildHeight+this.padding.top();
-            int widthStep = widthSpacing.get(i)+prevRowWidth+this.padding.left();
+            FlexSolver.solve(start, end, this.width, this.justifyContent, bases, grows, shrinks, widths, offsets);
 
-            heightStep = heightStep + (this.border.top() ? 1 : 0);
-            widthStep = widthStep + (this.border.left() ? 1 : 0);
+            for (int i = start; i < end; i++) {
+                Element child = this.childElements.get(i);
 
-            this.printChildScreen(child, heightStep, widthStep);
+                int heightStep = lineTop + this.getCrossAxisOffset(lineHeight, heights[i]);
+                heightStep = heightStep + this.padding.top() + borderTop;
+                int widthStep = offsets[i] + this.padding.left() + borderLeft;
 
-            prevRowWidth += child.getWidth() + widthSpacing.addToPrevRowWidth(i);
-            rowChildHeights.add(child.getHeight());
+                children.add(child.arrange(top + heightStep, left + widthStep, heights[i], widths[i]));
+            }
+
+            lineTop += lineHeight;
+            start = end;
+        }
+    }
+
+    private void arrangeUsingGridMethod(int top, int left, List<LayoutResult> children) {
+        GridTracks tracks = this.getGridTracks();
+
+        int heightStep = this.padding.top() + (this.border.top() ? 1 : 0);
+        int widthStep = this.padding.left() + (this.border.left() ? 1 : 0);
+
+        for (int i = 0; i < this.childElements.size(); i++) {
+            int row = tracks.cells[4 * i];
+            int column = tracks.cells[4 * i + 1];
+            int rowEnd = row + tracks.cells[4 * i + 2];
+            int columnEnd = column + tracks.cells[4 * i + 3];
+
+            // A child fills the cells it covers
+            int childTop = tracks.rowStarts[row];
+            int childLeft = tracks.columnStarts[column];
+            int childHeight = tracks.rowStarts[rowEnd] - childTop;
+            int childWidth = tracks.columnStarts[columnEnd] - childLeft;
+
+            children.add(this.childElements.get(i).arrange(
+                top + heightStep + childTop, left + widthStep + childLeft, childHeight, childWidth));
+        }
+    }
+
+    /**
+     * Returns the resolved grid tracks of this element, resolving them only if
+     * this element or one of its children has changed since the last time.
+     *
+     * @return the tracks for the element's current size
+     */
+    GridTracks getGridTracks() {
+        GridTracks tracks = this.gridTracks;
+        if (tracks == null || tracks.width != this.width || tracks.height != this.height) {
+            tracks = GridTracks.resolve(this.gridColumns, this.gridRows, this.childElements, this.width, this.height);
+            this.gridTracks = tracks;
+            this.keepLayout();
+        }
+        return tracks;
+    }
+
+    // The tracks resolved with no space to share, so fraction tracks take none
+    // and the totals are what the fixed and auto tracks need
+    private GridTracks measureGridTracks() {
+        return GridTracks.resolve(this.gridColumns, this.gridRows, this.childElements, 0, 0);
+    }
+
+    // The end of the flex line starting at start: as many children as fit, and at least one
+    private int getFlexLineEnd(int[] bases, int start, int count) {
+        int lineWidth = bases[start];
+        int end = start + 1;
+
+        while (end < count && lineWidth + bases[end] <= this.width) {
+            lineWidth += bases[end++];
+        }
+
+        return end;
+    }
+
+    private int getFlexLineHeight(int[] heights, int start, int end) {
+        int lineHeight = 0;
+        for (int i = start; i < end; i++) {
+            lineHeight = Math.max(lineHeight, heights[i]);
+        }
+        return lineHeight;
+    }
+
+    // Where a flex child starts within its line on the cross axis, according to alignItems
+    private int getCrossAxisOffset(int lineHeight, int childHeight) {
+        switch (this.alignItems) {
+            case CENTER: return (lineHeight - childHeight) / 2;
+            case FLEX_END: return lineHeight - childHeight;
+            default: return 0;
         }
     }
 
@@ -799,12 +1544,27 @@ public class Element {
      *  If the display mode is INLINE, delegates to {@link #getElementHeightInline()}.
      *  If the display mode is FLEX, returns the maximum height among children.
      *  If the display mode is BLOCK, returns the sum of all children heights.
+     *  If the display mode is GRID, returns the total height of the row tracks,
+     *  with fraction rows taking no space.
      * 
      * The returned height is clamped between the element's minHeight and maxHeight.
+     * The result is cached until this element or one of its descendants changes.
      * 
      * @return The calculated height of the element.
      */
     protected int getElementHeight() {
+        if (this.measuredHeight != NOT_MEASURED) {
+            MEASURE_CACHE_HITS.increment();
+            return this.measuredHeight;
+        }
+
+        MEASURE_CACHE_MISSES.increment();
+        this.measuredHeight = this.measureElementHeight();
+        this.keepLayout();
+        return this.measuredHeight;
+    }
+
+    private int measureElementHeight() {
         if (this.heightSet) return this.height;
 
         if (this.display.equals(Display.INLINE)) {
@@ -813,6 +1573,11 @@ public class Element {
 
         int height = 0;
 
+        if (this.display.equals(Display.GRID)) {
+            height = this.measureGridTracks().getRowsHeight();
+            return Math.min(Math.max(height, this.minHeight), this.maxHeight);
+        }
+
         for (Element child : this.childElements) {
             int childHeight = child.getElementHeight();
 
@@ -834,13 +1599,27 @@ public class Element {
      * in that row. The total height is the sum of all row heights.
      * 
      * If maxWidth is -1 (no max width), the height is the maximum child height.
+     * The result is cached until this element or one of its descendants changes.
      * 
      * @return The calculated height when using INLINE display.
      */
     protected int getElementHeightInline() {
+        if (this.measuredHeightInline != NOT_MEASURED) {
+            MEASURE_CACHE_HITS.increment();
+            return this.measuredHeightInline;
+        }
+
+        MEASURE_CACHE_MISSES.increment();
+        this.measuredHeightInline = this.measureElementHeightInline();
+        this.keepLayout();
+        return this.measuredHeightInline;
+    }
+
+    private int measureElementHeightInline() {
         int rowWidth = 0;
         int height = 0;
-        List<Integer> rowElementsHeight = new ArrayList<>();
+        // The tallest child in the current row
+        int rowHeight = 0;
 
         for (Element child : this.childElements) {
             int childHeight = child.getElementHeight();
@@ -853,19 +1632,15 @@ public class Element {
                 rowWidth = childWidth;
 
                 // Add height of completed row (max child height)
-                height += Helper.findLargestInList(rowElementsHeight);
-                rowElementsHeight.clear();
-
-                rowElementsHeight.add(childHeight);
+                height += rowHeight;
+                rowHeight = childHeight;
             } else if (this.maxWidth != -1) {
                 rowWidth += childWidth;
-                rowElementsHeight.add(childHeight);
+                rowHeight = Math.max(rowHeight, childHeight);
             }
         }
 
-        if (!rowElementsHeight.isEmpty()) {
-            height += Helper.findLargestInList(rowElementsHeight);
-        }
+        height += rowHeight;
 
         return height;
     }
@@ -876,16 +1651,37 @@ public class Element {
      * 
      *  If the width is manually set (widthSet == true), returns the set width.
      *  If the display mode is BLOCK, the width is the maximum width among children.
+     *  If the display mode is GRID, the width is the total width of the column
+     *  tracks, with fraction columns taking no space.
      *  Otherwise (e.g., INLINE or FLEX), the width is the sum of all child widths.
      * 
      * The returned width is clamped between the element's minWidth and maxWidth.
+     * The result is cached until this element or one of its descendants changes.
      * 
      * @return The calculated width of the element.
      */
     protected int getElementWidth() {
+        if (this.measuredWidth != NOT_MEASURED) {
+            MEASURE_CACHE_HITS.increment();
+            return this.measuredWidth;
+        }
+
+        MEASURE_CACHE_MISSES.increment();
+        this.measuredWidth = this.measureElementWidth();
+        this.keepLayout();
+        return this.measuredWidth;
+    }
+
+    private int measureElementWidth() {
         if (this.widthSet) return this.width;
 
         int width = 0;
+
+        if (this.display.equals(Display.GRID)) {
+            width = this.measureGridTracks().getColumnsWidth();
+            return Math.min(Math.max(width, this.minWidth), this.maxWidth);
+        }
+
         for (Element child : this.childElements) {
             int childWidth = child.getElementWidth();
             if (this.display.equals(Display.BLOCK) && childWidth > width) {
@@ -911,6 +1707,11 @@ public class Element {
     throws ChildrenNotAllowedException {
 
         this.childElements.add(child);
+        if (!child.parentElements.contains(this)) {
+            child.parentElements.add(this);
+        }
+
+        this.markDirty();
         return this;
     }
 
@@ -932,80 +1733,372 @@ public class Element {
     }
 
     /**
-     * Renders the element's content onto its screen representation,
-     * including borders and child elements according to the display mode.
+     * Returns the layout of this element and its descendants, with this element's
+     * top-left corner at {@code (0, 0)}.
+     *
+     * <p>The layout is computed without painting anything and is kept until this
+     * element or one of its descendants changes, so it can be reused across
+     * frames and queried for hit-testing.</p>
      *
-     * The method resets the current screen, adds borders, and then adds
-     * child elements using the appropriate layout method based on the
-     * element's display property:
+     * @return the layout of this element's subtree
+     */
+    public LayoutResult getLayout() {
+        return this.arrange(0, 0, this.getHeight(), this.getWidth());
+    }
+
+    /**
+     * Computes the box of this element and, recursively, of its children.
+     *
+     * <p>Children are positioned according to the element's display property:</p>
      * <ul>
      *   <li>{@link Display#BLOCK} uses block layout</li>
      *   <li>{@link Display#INLINE} uses inline layout</li>
      *   <li>{@link Display#FLEX} uses flex layout</li>
      * </ul>
      *
-     * @return this element instance for chaining
+     * <p>The result is cached; asking for the same box again before the element
+     * changes returns the cached layout.</p>
+     *
+     * @param top    the row the element's top edge is placed on
+     * @param left   the column the element's left edge is placed on
+     * @param height the number of rows given to the element
+     * @param width  the number of columns given to the element
+     * @return the layout of this element's subtree
      */
-    public Element printScreen() {
-        this.resetScreen();
-        this.addBorder();
+    protected LayoutResult arrange(int top, int left, int height, int width) {
+        LayoutResult cached = this.layout;
+        if (cached != null && cached.top() == top && cached.left() == left
+            && cached.height() == height && cached.width() == width) {
+            return cached;
+        }
+
+        // LayoutResult keeps its own copy, so the list can be scratch
+        List<LayoutResult> children = ScratchArena.scratchList(this.childElements.size());
 
-        // Add children screens
         if (display == Display.BLOCK) {
-            this.addScreensUsingBlockMethod();
+            this.arrangeUsingBlockMethod(top, left, children);
         } 
         
         else if (this.display == Display.INLINE) {
-            this.addScreensUsingInlineMethod();
+            this.arrangeUsingInlineMethod(top, left, children);
         } 
 
         else if (display == Display.FLEX) {
-            this.addScreensUsingFlexMethod();
+            this.arrangeUsingFlexMethod(top, left, children);
         }
-        
-        return this;
+
+        else if (this.display == Display.GRID) {
+            this.arrangeUsingGridMethod(top, left, children);
+        }
+
+        this.layout = new LayoutResult(this, top, left, height, width, children);
+        this.keepLayout();
+        return this.layout;
     }
 
-    private void printChildScreen(Element child, int heightStep, int widthStep) {
-        List<List<Character>> childScreen = child.getScreen();
+    /**
+     * Renders the element's content onto its screen representation,
+     * including borders and child elements according to the display mode.
+     *
+     * The method lays the element out with {@link #getLayout()}, resets the
+     * current screen and then paints the layout into it. Child elements draw
+     * themselves straight into this screen, so every cell is rasterized once
+     * per render regardless of how deeply the tree is nested.
+     *
+     * If nothing in the element's subtree has changed since the last render,
+     * the screen is left as it is.
+     *
+     * @return this element instance for chaining
+     */
+    public Element printScreen() {
+        if (!this.dirty && this.isCacheComplete()) return this;
+
+        LayoutResult layout = this.getLayout();
 
-        for (int j = 0; j < child.getHeight(); j++) {
-            for (int k = 0; k < child.getWidth(); k++) {
-                char c = childScreen.get(j).get(k);
+        this.screen.setStyle(this.style != null ? this.style.pack() : 0);
+        this.resetScreen();
+        this.paintContent(this.screen, layout);
 
-                try {
-                    this.screen.get(heightStep+j).set(widthStep+k, c);
-                }
+        this.setCacheArea(this.screen.getHeight(), this.screen.getWidth(), 0, 0);
+        this.cacheStyle = 0;
+        this.dirty = false;
+        return this;
+    }
 
-                catch (IndexOutOfBoundsException e) {
-                    continue;
+    /**
+     * Paints this element, including its background, into the given buffer.
+     *
+     * <p>The buffer's top-left cell is this element's top-left corner, and it is
+     * as large as the box in {@code layout}. Parents call this with a view of
+     * their own target, so the element writes directly into the screen being
+     * rendered.</p>
+     *
+     * <p>Only the visible part of the target is painted, and children whose box
+     * lies entirely outside it are skipped, so the cost of a paint follows what
+     * is visible rather than the size of the element.</p>
+     *
+     * <p>The element draws with its own {@link Style}, or with the style of the
+     * target if it has none.</p>
+     *
+     * <p>A {@linkplain #setCacheBoundary(boolean) cache boundary} that is clean
+     * copies the cells it cached the last time it was painted instead of
+     * painting its subtree again, as long as it inherits the same style.
+     * Otherwise the freshly painted visible cells are cached in {@link #screen}
+     * for the next render, unless the target is
+     * {@linkplain FrameBuffer#isDirect() off the heap}: such targets are used
+     * for canvases too large to mirror in a heap cache. Other elements paint
+     * straight into the target and keep no copy, so a render costs one write
+     * per visible cell however deep the tree is.</p>
+     *
+     * @param target the buffer to paint into
+     * @param layout the layout computed for this element
+     */
+    protected void paint(FrameBuffer target, LayoutResult layout) {
+        // The cache is locked because an element inserted in several places
+        // may be painted by more than one task at a time
+        int inherited = target.getStyle();
+
+        synchronized (this) {
+            if (this.cacheBoundary && !this.dirty
+                && this.cacheStyle == inherited && this.isCacheValidFor(target)) {
+                if (this.joinsBorder()) {
+                    this.copyCacheAroundBorder(target);
+                } else {
+                    target.copyFrom(this.screen, this.cacheTop, this.cacheLeft);
                 }
+                return;
             }
         }
+
+        if (this.style != null) target.setStyle(this.style.pack());
+        char background = this.fill ? '#' : ' ';
+
+        if (this.joinsBorder()) {
+            // Border cells keep what is beneath them so the border can join it
+            this.forEachCellOutsideBorder(target, (row, from, to) -> target.fillRow(row, from, to, background));
+        } else {
+            target.clear(background);
+        }
+        this.paintContent(target, layout);
+
+        if (!this.cacheBoundary || target.isDirect()) {
+            synchronized (this) {
+                // The screen may now be older than the element, so stop trusting it
+                this.cacheHeight = -1;
+                this.dirty = false;
+            }
+            return;
+        }
+
+        int top = target.getClipTop();
+        int left = target.getClipLeft();
+        int height = target.getClipBottom() - top;
+        int width = target.getClipRight() - left;
+
+        synchronized (this) {
+            this.screen.reset(height, width, ' ');
+            this.screen.copyFrom(ScratchArena.scratchRegion(target, top, left, height, width), 0, 0);
+            this.setCacheArea(target.getHeight(), target.getWidth(), top, left);
+            this.cacheStyle = inherited;
+            this.dirty = false;
+        }
+    }
+
+    /**
+     * Lays this element out and paints it into an external buffer, with the
+     * element's top-left corner on the buffer's top-left cell.
+     *
+     * <p>Unlike {@link #printScreen()}, the element's own screen is not used as
+     * the destination. Painting into a {@link textui.render.DirectFrameBuffer}
+     * this way renders very large canvases without allocating them on the heap.</p>
+     *
+     * @param target the buffer to paint into
+     * @return this element instance for chaining
+     */
+    public Element renderTo(FrameBuffer target) {
+        return this.renderTo(target, new Viewport(0, 0, target.getHeight(), target.getWidth()));
+    }
+
+    /**
+     * Lays this element out and paints the part of it covered by a viewport
+     * into an external buffer. Cell {@code (viewport.top(), viewport.left())}
+     * of the element lands on the buffer's top-left cell.
+     *
+     * <p>Subtrees whose box does not intersect the viewport are not painted at
+     * all, and partially visible subtrees only paint the cells that intersect
+     * it, so the cost follows the size of the viewport rather than the size of
+     * the element.</p>
+     *
+     * <p>The element is painted on every call, whether or not it is
+     * {@linkplain #isDirty() dirty}, since the target may have been drawn over
+     * in between. A caller that keeps the target, such as {@code TextUI}, only
+     * calls this again once the element is dirty or the viewport has moved.</p>
+     *
+     * @param target   the buffer to paint into
+     * @param viewport the part of this element to paint
+     * @return this element instance for chaining
+     */
+    public Element renderTo(FrameBuffer target, Viewport viewport) {
+        LayoutResult layout = this.getLayout();
+
+        // Clip to the viewport first, then shift so the viewport's corner is the target's
+        FrameBuffer visible = ScratchArena.scratchRegion(target, 0, 0, viewport.height(), viewport.width());
+        this.paint(ScratchArena.scratchRegion(
+            visible, -viewport.top(), -viewport.left(), layout.height(), layout.width()), layout);
+        return this;
+    }
+
+    private boolean isCacheComplete() {
+        return this.cacheHeight == this.getHeight()
+            && this.cacheWidth == this.getWidth()
+            && this.cacheTop == 0 && this.cacheLeft == 0
+            && this.cacheBottom == this.cacheHeight
+            && this.cacheRight == this.cacheWidth;
+    }
+
+    private boolean isCacheValidFor(FrameBuffer target) {
+        // Every cell visible through the target must have been cached
+        return this.cacheHeight == target.getHeight()
+            && this.cacheWidth == target.getWidth()
+            && this.cacheTop <= target.getClipTop()
+            && this.cacheLeft <= target.getClipLeft()
+            && this.cacheBottom >= target.getClipBottom()
+            && this.cacheRight >= target.getClipRight();
+    }
+
+    private void setCacheArea(int height, int width, int top, int left) {
+        this.cacheHeight = height;
+        this.cacheWidth = width;
+        this.cacheTop = top;
+        this.cacheLeft = left;
+        this.cacheBottom = top + this.screen.getHeight();
+        this.cacheRight = left + this.screen.getWidth();
+    }
+
+    /**
+     * Paints the borders and child elements of this element into the given
+     * buffer, on top of a background that has already been drawn. Children are
+     * drawn at the boxes recorded in {@code layout}; no positions are computed here.
+     *
+     * @param target the buffer to paint into
+     * @param layout the layout computed for this element
+     */
+    protected void paintContent(FrameBuffer target, LayoutResult layout) {
+        this.addBorder(target);
+
+        if (this.parallelPaintThreshold != Integer.MAX_VALUE && this.canPaintChildrenInParallel(layout)) {
+            this.paintChildrenInParallel(target, layout);
+            return;
+        }
+
+        for (LayoutResult child : layout.children()) {
+            // A child whose box misses the visible area is culled with its whole subtree
+            FrameBuffer childTarget = this.childTarget(target, layout, child);
+            if (childTarget.isClipped()) continue;
+
+            child.element().paint(childTarget, child);
+        }
+    }
+
+    private FrameBuffer childTarget(FrameBuffer target, LayoutResult layout, LayoutResult child) {
+        // Cells that fall outside this element are clipped by the view
+        return ScratchArena.scratchRegion(
+            target, child.top() - layout.top(), child.left() - layout.left(), child.height(), child.width());
+    }
+
+    private void paintChildrenInParallel(FrameBuffer target, LayoutResult layout) {
+        List<PaintTask> tasks = new ArrayList<>();
+
+        for (LayoutResult child : layout.children()) {
+            FrameBuffer childTarget = this.childTarget(target, layout, child);
+            if (childTarget.isClipped()) continue;
+
+            if ((long) child.height() * child.width() >= this.parallelPaintThreshold) {
+                PaintTask task = new PaintTask(childTarget, child);
+                task.fork();
+                tasks.add(task);
+            } else {
+                child.element().paint(childTarget, child);
+            }
+        }
+
+        for (PaintTask task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * Checks that no two children cover the same visible cell, in which case
+     * the order they are painted in does not matter. The answer is kept until
+     * the layout changes, so a container pays for the check once per layout
+     * rather than once per frame.
+     */
+    private boolean canPaintChildrenInParallel(LayoutResult layout) {
+        if (layout.children().size() < 2) return false;
+
+        synchronized (this) {
+            if (this.overlapCheckedLayout != layout) {
+                this.childrenOverlap = childrenOverlap(layout);
+                this.overlapCheckedLayout = layout;
+            }
+            return !this.childrenOverlap;
+        }
+    }
+
+    // Sweeps the children's boxes, clipped to the parent, from top to bottom.
+    // The boxes crossing the sweep row must not overlap, so their column ranges
+    // are disjoint and can be kept in a map ordered by left edge, which makes
+    // the check O(n log n).
+    static boolean childrenOverlap(LayoutResult layout) {
+        int top = layout.top();
+        int left = layout.left();
+        int bottom = top + layout.height();
+        int right = left + layout.width();
+
+        List<int[]> boxes = new ArrayList<>();
+        for (LayoutResult child : layout.children()) {
+            int[] box = {
+                Math.max(top, child.top()),
+                Math.max(left, child.left()),
+                Math.min(bottom, child.top() + child.height()),
+                Math.min(right, child.left() + child.width())
+            };
+            if (box[0] < box[2] && box[1] < box[3]) boxes.add(box);
+        }
+        boxes.sort(Comparator.comparingInt(box -> box[0]));
+
+        TreeMap<Integer, int[]> crossing = new TreeMap<>();
+        PriorityQueue<int[]> byBottom = new PriorityQueue<>(Comparator.comparingInt(box -> box[2]));
+
+        for (int[] box : boxes) {
+            while (!byBottom.isEmpty() && byBottom.peek()[2] <= box[0]) {
+                crossing.remove(byBottom.poll()[1]);
+            }
+
+            Map.Entry<Integer, int[]> before = crossing.floorEntry(box[1]);
+            if (before != null && before.getValue()[3] > box[1]) return true;
+
+            Map.Entry<Integer, int[]> after = crossing.higherEntry(box[1]);
+            if (after != null && after.getKey() < box[3]) return true;
+
+            crossing.put(box[1], box);
+            byBottom.add(box);
+        }
+
+        return false;
     }
 
     /**
      * Resets the screen buffer to an empty state based on the current element size.
      * 
-     * This method clears the current screen content and reinitializes it as a
-     * 2D list of characters with dimensions equal to the element's height and width.
-     * Each cell is filled with '#' if the fill flag is true; otherwise, it is
-     * filled with a space character ' '.
+     * This method resizes the screen to the element's height and width, reusing
+     * the existing backing array when it is large enough. Each cell is filled
+     * with '#' if the fill flag is true; otherwise, it is filled with a space
+     * character ' '.
      * 
      * The screen acts as a visual buffer representing the element's rendering area.
      */
     protected void resetScreen() {
-        this.screen.clear();
-
-        int height = this.getHeight();
-        int width = this.getWidth();
-
-        for (int h = 0; h < height; h++) {
-            List<Character> row = new ArrayList<>();
-            for (int w = 0; w < width; w++) {
-                row.add(this.fill ? '#' : ' ');
-            }
-            this.screen.add(row);
-        }
+        this.screen.reset(this.getHeight(), this.getWidth(), this.fill ? '#' : ' ');
     }
 }
@@ -0,0 +1,108 @@
+package textui.element;
+
+/**
+ * Distributes the main axis of a flex container among its children.
+ *
+ * <p>Each child starts at its basis. If the bases leave space free, it is
+ * shared among the children in proportion to their grow factors; if they
+ * overflow, the overflow is taken from the children in proportion to their
+ * shrink factors times their bases, and no child shrinks below zero. Space
+ * that is still free is then placed around the children according to the
+ * container's {@link FlexAlign}.</p>
+ *
+ * <p>The solver makes one pass over the children to add up the bases and
+ * factors, one to size them and one to place them, so a layout costs time
+ * linear in the number of children. Shares are rounded so that together
+ * they add up to exactly the space being distributed.</p>
+ */
+final class FlexSolver {
+    private FlexSolver() {
+    }
+
+    /**
+     * Sizes and places the children {@code [from, to)} along an axis of
+     * {@code available} cells, such as one line of a wrapping container.
+     *
+     * @param from      the first child to place (inclusive)
+     * @param to        the last child to place (exclusive)
+     * @param available the length of the container's main axis
+     * @param justify   how free space is placed around the children
+     * @param bases     the length of each child before growing or shrinking
+     * @param grows     the grow factor of each child
+     * @param shrinks   the shrink factor of each child
+     * @param sizes     receives the final length of each child
+     * @param offsets   receives the position of each child from the start of the axis
+     */
+    static void solve(int from, int to, int available, FlexAlign justify,
+                      int[] bases, int[] grows, int[] shrinks, int[] sizes, int[] offsets) {
+        int count = to - from;
+        long totalBasis = 0;
+        long totalGrow = 0;
+        long totalScaledShrink = 0;
+
+        for (int i = from; i < to; i++) {
+            totalBasis += bases[i];
+            totalGrow += grows[i];
+            totalScaledShrink += (long) shrinks[i] * bases[i];
+        }
+
+        long free = available - totalBasis;
+        long used = 0;
+
+        // Each child gets the difference between the rounded shares of all
+        // children up to and including it and of those before it
+        long before = 0;
+        for (int i = from; i < to; i++) {
+            int size = bases[i];
+
+            if (free > 0 && totalGrow > 0) {
+                long after = before + grows[i];
+                size += (int) (free * after / totalGrow - free * before / totalGrow);
+                before = after;
+            } else if (free < 0 && totalScaledShrink > 0) {
+                long after = before + (long) shrinks[i] * bases[i];
+                size -= (int) (-free * after / totalScaledShrink - -free * before / totalScaledShrink);
+                size = Math.max(0, size);
+                before = after;
+            }
+
+            sizes[i] = size;
+            used += size;
+        }
+
+        int extra = (int) (available - used);
+        int lead;
+        int gap;
+
+        switch (justify) {
+            case FLEX_END:
+                lead = extra;
+                gap = 0;
+                break;
+            case CENTER:
+                lead = extra / 2;
+                gap = 0;
+                break;
+            case SPACE_APART:
+                // Space between children only; a single child stays at the start
+                lead = 0;
+                gap = count > 1 ? extra / (count - 1) : 0;
+                break;
+            case SPACE_BETWEEN:
+                // The same space before, between and after the children
+                gap = extra / (count + 1);
+                lead = gap;
+                break;
+            case FLEX_START:
+            default:
+                lead = 0;
+                gap = 0;
+        }
+
+        int position = lead;
+        for (int i = from; i < to; i++) {
+            offsets[i] = position;
+            position += sizes[i] + gap;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package textui.element;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The resolved tracks of a {@link Display#GRID} container: where every row
+ * and column starts, and which cells every child covers.
+ *
+ * <p>Children are placed the way CSS grid places them. Children with an
+ * explicit row and column keep them. Children with only an explicit row take
+ * the first free columns in that row. The others are placed in order, left to
+ * right and top to bottom, after the previous one: a child with an explicit
+ * column takes it in the first row where it is free, and a child with neither
+ * takes the first free cells that fit the columns defined on the container.
+ * Auto-placed children never cover a cell another child already covers. Rows
+ * or columns a child reaches beyond the ones defined on the container are added
+ * as auto tracks.</p>
+ *
+ * <p>Fixed tracks take their size, auto tracks take the size of the largest
+ * child that spans only them, and fractions share what is left of the
+ * available space. Resolving takes time in proportion to the number of cells
+ * the children cover and the tracks. The result depends only on the
+ * container's size and on its children, so the container keeps it until one of
+ * those changes, even when the grid itself is moved.</p>
+ */
+final class GridTracks {
+    // The size the tracks were resolved for
+    final int width;
+    final int height;
+
+    // Track i runs from starts[i] to starts[i + 1]
+    final int[] columnStarts;
+    final int[] rowStarts;
+
+    // For child i: row, column, row span and column span at cells[4 * i] onwards
+    final int[] cells;
+
+    private GridTracks(int width, int height, int[] columnStarts, int[] rowStarts, int[] cells) {
+        this.width = width;
+        this.height = height;
+        this.columnStarts = columnStarts;
+        this.rowStarts = rowStarts;
+        this.cells = cells;
+    }
+
+    /**
+     * Returns the total width of the column tracks.
+     *
+     * @return the column where the last track ends
+     */
+    int getColumnsWidth() {
+        return this.columnStarts[this.columnStarts.length - 1];
+    }
+
+    /**
+     * Returns the total height of the row tracks.
+     *
+     * @return the row where the last track ends
+     */
+    int getRowsHeight() {
+        return this.rowStarts[this.rowStarts.length - 1];
+    }
+
+    /**
+     * Places the children and sizes the tracks of a grid.
+     *
+     * @param columns  the column tracks defined on the container
+     * @param rows     the row tracks defined on the container
+     * @param children the container's children
+     * @param width    the number of columns of cells available
+     * @param height   the number of rows of cells available
+     * @return the resolved tracks
+     */
+    static GridTracks resolve(List<Track> columns, List<Track> rows, List<Element> children, int width, int height) {
+        int[] cells = new int[4 * children.size()];
+        List<BitSet> occupied = new ArrayList<>();
+
+        // Explicit cells first, then children locked to a row, so that the
+        // children placed after them can go around both
+        for (int i = 0; i < children.size(); i++) {
+            Element child = children.get(i);
+            if (child.gridRow != Element.AUTO && child.gridColumn != Element.AUTO) {
+                place(cells, occupied, i, child, child.gridRow, child.gridColumn);
+            }
+        }
+
+        for (int i = 0; i < children.size(); i++) {
+            Element child = children.get(i);
+            if (child.gridRow == Element.AUTO || child.gridColumn != Element.AUTO) continue;
+
+            int column = 0;
+            while (!isFree(occupied, child.gridRow, column, child.gridRowSpan, child.gridColumnSpan)) {
+                column++;
+            }
+            place(cells, occupied, i, child, child.gridRow, column);
+        }
+
+        // The rest follow a cursor through the defined columns
+        int autoColumns = Math.max(1, columns.size());
+        int cursorRow = 0;
+        int cursorColumn = 0;
+
+        for (int i = 0; i < children.size(); i++) {
+            Element child = children.get(i);
+            if (child.gridRow != Element.AUTO) continue;
+
+            int rowSpan = child.gridRowSpan;
+            int columnSpan = child.gridColumnSpan;
+
+            if (child.gridColumn != Element.AUTO) {
+                int column = child.gridColumn;
+                if (column < cursorColumn) cursorRow++;
+                while (!isFree(occupied, cursorRow, column, rowSpan, columnSpan)) {
+                    cursorRow++;
+                }
+                cursorColumn = column;
+            } else {
+                while ((cursorColumn > 0 && cursorColumn + columnSpan > autoColumns)
+                    || !isFree(occupied, cursorRow, cursorColumn, rowSpan, columnSpan)) {
+                    if (cursorColumn + columnSpan < autoColumns) {
+                        cursorColumn++;
+                    } else {
+                        cursorRow++;
+                        cursorColumn = 0;
+                    }
+                }
+            }
+
+            place(cells, occupied, i, child, cursorRow, cursorColumn);
+            cursorColumn += columnSpan;
+        }
+
+        int columnCount = autoColumns;
+        int rowCount = rows.size();
+        for (int i = 0; i < children.size(); i++) {
+            rowCount = Math.max(rowCount, cells[4 * i] + cells[4 * i + 2]);
+            columnCount = Math.max(columnCount, cells[4 * i + 1] + cells[4 * i + 3]);
+        }
+
+        int[] columnStarts = sizeTracks(columns, columnCount, width, children, cells, true);
+        int[] rowStarts = sizeTracks(rows, rowCount, height, children, cells, false);
+        return new GridTracks(width, height, columnStarts, rowStarts, cells);
+    }
+
+    // Records child i's cells and marks them as taken
+    private static void place(int[] cells, List<BitSet> occupied, int i, Element child, int row, int column) {
+        cells[4 * i] = row;
+        cells[4 * i + 1] = column;
+        cells[4 * i + 2] = child.gridRowSpan;
+        cells[4 * i + 3] = child.gridColumnSpan;
+
+        while (occupied.size() < row + child.gridRowSpan) {
+            occupied.add(new BitSet());
+        }
+        for (int r = row; r < row + child.gridRowSpan; r++) {
+            occupied.get(r).set(column, column + child.gridColumnSpan);
+        }
+    }
+
+    private static boolean isFree(List<BitSet> occupied, int row, int column, int rowSpan, int columnSpan) {
+        for (int r = row; r < Math.min(row + rowSpan, occupied.size()); r++) {
+            int taken = occupied.get(r).nextSetBit(column);
+            if (taken != -1 && taken < column + columnSpan) return false;
+        }
+        return true;
+    }
+
+    // Sizes count tracks along one axis and returns where each starts, plus the end of the last
+    private static int[] sizeTracks(List<Track> tracks, int count, int available,
+                                    List<Element> children, int[] cells, boolean columns) {
+        int[] sizes = new int[count + 1];
+        int totalFraction = 0;
+        int used = 0;
+
+        for (int i = 0; i < count; i++) {
+            Track track = i < tracks.size() ? tracks.get(i) : Track.auto();
+            if (track.type() == Track.Type.FIXED) sizes[i] = track.value();
+            if (track.type() == Track.Type.FRACTION) totalFraction += track.value();
+        }
+
+        // Auto tracks grow to fit the children that span them alone
+        int offset = columns ? 1 : 0;
+        for (int i = 0; i < children.size(); i++) {
+            if (cells[4 * i + 2 + offset] != 1) continue;
+
+            int index = cells[4 * i + offset];
+            Track track = index < tracks.size() ? tracks.get(index) : Track.auto();
+            if (track.type() != Track.Type.AUTO) continue;
+
+            Element child = children.get(i);
+            sizes[index] = Math.max(sizes[index], columns ? child.getWidth() : child.getHeight());
+        }
+
+        for (int i = 0; i < count; i++) {
+            used += sizes[i];
+        }
+
+        // Fractions share the free space; rounding the running total keeps the sum exact
+        long free = Math.max(0, available - used);
+        long before = 0;
+        for (int i = 0; i < count && totalFraction > 0; i++) {
+            Track track = i < tracks.size() ? tracks.get(i) : null;
+            if (track == null || track.type() != Track.Type.FRACTION) continue;
+
+            long after = before + track.value();
+            sizes[i] = (int) (free * after / totalFraction - free * before / totalFraction);
+            before = after;
+        }
+
+        // Turn sizes into starts in place
+        int start = 0;
+        for (int i = 0; i <= count; i++) {
+            int size = sizes[i];
+            sizes[i] = start;
+            start += size;
+        }
+
+        return sizes;
+    }
+}
@@ -0,0 +1,72 @@
+package textui.element;
+
+import java.util.List;
+
+/**
+ * The box an element occupies after layout, together with the boxes of its children.
+ *
+ * <p>A LayoutResult is produced by {@link Element#getLayout()} and is consumed by
+ * the paint pass, which only draws what the layout describes. Coordinates are
+ * measured from the top-left corner of the element the layout was computed for.
+ * Instances are immutable, so a layout can be kept across frames and queried for
+ * hit-testing without rendering anything.</p>
+ *
+ * @param element  the element this box belongs to
+ * @param top      the row of the element's top edge, including margin
+ * @param left     the column of the element's left edge, including margin
+ * @param height   the number of rows the element occupies, including margin
+ * @param width    the number of columns the element occupies, including margin
+ * @param children the layouts of the element's children, in paint order
+ */
+public record LayoutResult(Element element, int top, int left, int height, int width, List<LayoutResult> children) {
+
+    /**
+     * Creates a LayoutResult, taking an unmodifiable copy of the children.
+     */
+    public LayoutResult {
+        children = List.copyOf(children);
+    }
+
+    /**
+     * Checks whether the given cell lies inside this box.
+     *
+     * @param row the row to check
+     * @param col the column to check
+     * @return true if {@code (row, col)} is covered by this box
+     */
+    public boolean contains(int row, int col) {
+        return row >= this.top && row < this.top + this.height
+            && col >= this.left && col < this.left + this.width;
+    }
+
+    /**
+     * Finds the innermost box that covers the given cell. Later children are
+     * painted over earlier ones, so they are searched first.
+     *
+     * @param row the row to look up
+     * @param col the column to look up
+     * @return the deepest layout containing {@code (row, col)}, or null if the cell is outside this box
+     */
+    public LayoutResult find(int row, int col) {
+        if (!this.contains(row, col)) return null;
+
+        for (int i = this.children.size() - 1; i >= 0; i--) {
+            LayoutResult hit = this.children.get(i).find(row, col);
+            if (hit != null) return hit;
+        }
+
+        return this;
+    }
+
+    /**
+     * Finds the innermost element drawn at the given cell.
+     *
+     * @param row the row to look up
+     * @param col the column to look up
+     * @return the element at {@code (row, col)}, or null if the cell is outside this box
+     */
+    public Element elementAt(int row, int col) {
+        LayoutResult hit = this.find(row, col);
+        return hit == null ? null : hit.element;
+    }
+}
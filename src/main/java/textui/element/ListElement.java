@@ -0,0 +1,206 @@
+package textui.element;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+import textui.render.FrameBuffer;
+import textui.text.DisplayWidth;
+import textui.text.LineBreaker;
+
+/**
+ * The base of the list elements, which display one item per row behind a marker.
+ *
+ * <p>Items are either added one at a time with {@code addItem}, which stores
+ * every item and keeps only as many as fit in the element, or read from a
+ * backing source set with {@link #setItems(int, IntFunction)}. A source can
+ * hold millions of items: only the rows inside the element's visible window
+ * are fetched and formatted when the element is painted, and
+ * {@link #setScrollOffset(int)} moves that window in time proportional to the
+ * number of visible rows.</p>
+ *
+ * <p>When a source is used, the width of the element is not inferred from its
+ * items and should be set explicitly.</p>
+ */
+public abstract class ListElement extends TextElement {
+    private IntFunction<String> items;
+    private int itemCount = 0;
+    private int scrollOffset = 0;
+
+    /**
+     * Constructs a ListElement with default dimensions.
+     */
+    public ListElement() {
+        super();
+    }
+
+    /**
+     * Constructs a ListElement with the same value used for both height and width.
+     *
+     * @param size the value to use for both height and width
+     */
+    public ListElement(int size) {
+        super(size);
+    }
+
+    /**
+     * Constructs a ListElement with specified height and width.
+     *
+     * @param height the initial height of the element
+     * @param width  the initial width of the element
+     */
+    public ListElement(int height, int width) {
+        super(height, width);
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the number of items in this list.
+     *
+     * @return the size of the backing source, or the number of added items
+     */
+    public int getItemCount() {
+        return this.items != null ? this.itemCount : this.paragraph.size();
+    }
+
+    /**
+     * Returns the index of the item shown on the first row.
+     *
+     * @return the current scroll offset
+     */
+    public int getScrollOffset() {
+        return this.scrollOffset;
+    }
+
+    /**
+     * Returns the number of items that fit in the element at once.
+     *
+     * @return the number of content rows
+     */
+    public int getVisibleRowCount() {
+        return Math.max(0, Math.min(Math.max(this.minHeight, this.height), this.maxHeight));
+    }
+
+
+    // SETTERS
+    /**
+     * Displays the items of a list. The list is read lazily, so it must not
+     * change size while it is displayed; call this method again if it does.
+     * Items added with {@code addItem} are discarded.
+     *
+     * @param items the items to display
+     * @return this element for chaining
+     */
+    public ListElement setItems(List<String> items) {
+        return this.setItems(items.size(), items::get);
+    }
+
+    /**
+     * Displays {@code count} items produced on demand by {@code source}, which
+     * is only called for the items in the visible window.
+     * Items added with {@code addItem} are discarded.
+     *
+     * @param count  the number of items
+     * @param source returns the text of the item at a given index
+     * @return this element for chaining
+     */
+    public ListElement setItems(int count, IntFunction<String> source) {
+        this.items = source;
+        this.itemCount = Math.max(0, count);
+        this.paragraph.clear();
+
+        this.scrollOffset = this.clampScrollOffset(this.scrollOffset);
+        this.markDirty();
+        return this;
+    }
+
+    /**
+     * Scrolls the list so that the item at {@code offset} is shown on the first
+     * row. The offset is clamped so that the window never runs past the last item.
+     *
+     * @param offset the index of the first visible item
+     * @return this element for chaining
+     */
+    public ListElement setScrollOffset(int offset) {
+        int clamped = this.clampScrollOffset(offset);
+        if (clamped == this.scrollOffset) return this;
+
+        this.scrollOffset = clamped;
+        // The list keeps its size, so only its rows are painted again
+        this.markPaintDirty();
+        return this;
+    }
+
+    /**
+     * Scrolls the list by a number of rows.
+     *
+     * @param rows the number of rows to scroll down, or up if negative
+     * @return this element for chaining
+     */
+    public ListElement scrollBy(int rows) {
+        return this.setScrollOffset((int) Math.min(Integer.MAX_VALUE, Math.max(0L, (long) this.scrollOffset + rows)));
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Returns the marker printed before the item at the given index, such as
+     * {@code "1."} or {@code "-"}.
+     *
+     * @param index the zero-based index of the item
+     * @return the marker for that item
+     */
+    protected abstract String getMarker(int index);
+
+    @Override
+    protected int getRowCount() {
+        if (this.items == null) return this.paragraph.size();
+
+        return Math.min(this.getVisibleRowCount(), this.itemCount - this.scrollOffset);
+    }
+
+    @Override
+    protected void printRow(FrameBuffer target, int index) {
+        if (this.items == null) {
+            super.printRow(target, index);
+            return;
+        }
+
+        int item = this.scrollOffset + index;
+        String row = this.formatItem(this.getMarker(item), this.items.apply(item));
+        this.printRow(target, row, 0, row.length(), index);
+    }
+
+    /**
+     * Builds the row for an item: its marker followed by the words of the item
+     * that fit within the content width.
+     *
+     * @param marker the marker printed before the item
+     * @param item   the text of the item
+     * @return the row's words, separated by single spaces
+     */
+    protected String formatItem(String marker, String item) {
+        int contentWidth = Math.min(Math.max(this.minWidth, this.width), this.maxWidth);
+        int end = LineBreaker.trimmedLength(item);
+
+        StringBuilder row = new StringBuilder(marker);
+        int charCount = DisplayWidth.of(marker);
+
+        for (int pos = 0; pos < end; ) {
+            int wordEnd = LineBreaker.endOfWord(item, pos, end);
+            int wordWidth = DisplayWidth.of(item, pos, wordEnd);
+            if (charCount + wordWidth > contentWidth) break;
+
+            row.append(' ').append(item, pos, wordEnd);
+            charCount += wordWidth + 1;
+            pos = wordEnd + 1;
+        }
+
+        return row.toString();
+    }
+
+    private int clampScrollOffset(int offset) {
+        int last = Math.max(0, this.getItemCount() - this.getVisibleRowCount());
+        return Math.max(0, Math.min(offset, last));
+    }
+}
@@ -2,6 +2,9 @@ package textui.element;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntFunction;
+
+import textui.text.DisplayWidth;
 
 /**
  * A UI element representing a sorted (numbered) list of text entries.
@@ -9,7 +12,7 @@ import java.util.List;
  * The element respects minimum and maximum width/height constraints,
  * and automatically adjusts dimensions if not explicitly set.
  */
-public class SortedListElement extends TextElement {
+public class SortedListElement extends ListElement {
 
     /**
      * Constructs a SortedListElement with default dimensions.
@@ -85,6 +88,55 @@ public class SortedListElement extends TextElement {
         return this;
     }
 
+    /**
+     * Displays the items of a list, fetching only the visible ones when painting.
+     *
+     * @param items the items to display
+     * @return this element for method chaining
+     */
+    @Override
+    public SortedListElement setItems(List<String> items) {
+        super.setItems(items);
+        return this;
+    }
+
+    /**
+     * Displays {@code count} items produced on demand by {@code source}.
+     *
+     * @param count  the number of items
+     * @param source returns the text of the item at a given index
+     * @return this element for method chaining
+     */
+    @Override
+    public SortedListElement setItems(int count, IntFunction<String> source) {
+        super.setItems(count, source);
+        return this;
+    }
+
+    /**
+     * Scrolls the list so that the item at {@code offset} is shown on the first row.
+     *
+     * @param offset the index of the first visible item
+     * @return this element for method chaining
+     */
+    @Override
+    public SortedListElement setScrollOffset(int offset) {
+        super.setScrollOffset(offset);
+        return this;
+    }
+
+    /**
+     * Scrolls the list by a number of rows.
+     *
+     * @param rows the number of rows to scroll down, or up if negative
+     * @return this element for method chaining
+     */
+    @Override
+    public SortedListElement scrollBy(int rows) {
+        super.scrollBy(rows);
+        return this;
+    }
+
     /**
      * Adds a new item to the sorted list. If height is not set, it grows automatically.
      * If the list is already full, the item is not added.
@@ -96,6 +148,7 @@ public class SortedListElement extends TextElement {
     public SortedListElement addItem(String item) {
         if (!this.heightSet) {
             this.height++;
+            this.markDirty();
         }
 
         int contentHeight = Math.min(Math.max(this.minHeight, this.height), this.maxHeight);
@@ -107,7 +160,7 @@ public class SortedListElement extends TextElement {
 
         // Estimate needed width if width was not set
         if (!this.widthSet) {
-            int estimatedWidth = item.length() + item.split(" ").length + 2;
+            int estimatedWidth = DisplayWidth.of(item) + item.split(" ").length + 2;
             this.width = Math.max(this.width, estimatedWidth);
         }
 
@@ -119,14 +172,27 @@ public class SortedListElement extends TextElement {
         // Append words until reaching max content width
         int charCount = 2; // Starts with "1." (length 2)
         for (String word : item.split(" ")) {
-            if (charCount + word.length() > contentWidth) {
+            int wordWidth = DisplayWidth.of(word);
+            if (charCount + wordWidth > contentWidth) {
                 break;
             }
             listItem.add(word);
-            charCount += word.length() + 1; // +1 for space
+            charCount += wordWidth + 1; // +1 for space
         }
 
-        this.paragraph.add(listItem);
+        this.paragraph.add(String.join(" ", listItem));
+        this.markDirty();
         return this;
     }
+
+    /**
+     * Returns the item's number followed by a period, printed before the item.
+     *
+     * @param index the zero-based index of the item
+     * @return the marker for that item
+     */
+    @Override
+    protected String getMarker(int index) {
+        return (index + 1) + ".";
+    }
 }
@@ -0,0 +1,262 @@
+package textui.element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import textui.render.FrameBuffer;
+import textui.text.DisplayWidth;
+
+/**
+ * A text element for output that arrives a little at a time, such as a log
+ * being tailed.
+ *
+ * <p>Text is added with {@link #append(CharSequence)}. Only the appended
+ * characters are processed: each one is either added to the current word or
+ * completes it, and completed words are wrapped onto the current row. Rows that
+ * are full go into a ring buffer holding at most {@code capacity} rows, so the
+ * cost of an append is proportional to the length of the appended text and the
+ * memory used never grows past the capacity, no matter how long the stream runs.</p>
+ *
+ * <p>A newline character ends the current line. The element always shows the
+ * newest rows, with the line that is still being written at the bottom.
+ * Lines are wrapped at the element's width at the time they are appended; a
+ * word longer than the width is split across rows as soon as it fills one, so
+ * a stream without spaces is held in rows like any other.</p>
+ */
+public class StreamingTextElement extends TextElement {
+    /**
+     * The number of wrapped rows kept when no capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+
+    // Completed rows; the oldest is at index head once the buffer is full
+    private final List<String> rows;
+    private int head = 0;
+
+    // The row being filled, its display width, and the word being read
+    private final StringBuilder openRow = new StringBuilder();
+    private int openRowWidth = 0;
+    private final StringBuilder openWord = new StringBuilder();
+    private boolean openWordSplit = false;
+    private String lastWord = null;
+
+    /**
+     * Constructs a StreamingTextElement of the given size that keeps
+     * {@link #DEFAULT_CAPACITY} rows.
+     *
+     * @param height the number of rows shown
+     * @param width  the number of columns text is wrapped at
+     */
+    public StreamingTextElement(int height, int width) {
+        this(height, width, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a StreamingTextElement of the given size that keeps at most
+     * {@code capacity} wrapped rows.
+     *
+     * @param height   the number of rows shown
+     * @param width    the number of columns text is wrapped at
+     * @param capacity the maximum number of completed rows kept in memory
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public StreamingTextElement(int height, int width, int capacity) {
+        super(height, width);
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.capacity = capacity;
+        this.rows = new ArrayList<>(Math.min(capacity, DEFAULT_CAPACITY));
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the maximum number of completed rows this element keeps.
+     *
+     * @return the capacity of the ring buffer
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of rows held, including the row still being written.
+     *
+     * @return the number of rows that can be shown
+     */
+    public int getLineCount() {
+        return this.rows.size() + (this.hasOpenRow() ? 1 : 0);
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Appends text to the stream. Only the appended characters are wrapped.
+     *
+     * @param text the text to append; newline characters end lines
+     * @return this element for chaining
+     */
+    public StreamingTextElement append(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '\n') {
+                this.endWord();
+                this.endRow();
+            } else if (c == ' ') {
+                this.endWord();
+            } else if (c != '\r') {
+                this.openWord.append(c);
+
+                // Holding no more than a row's worth of characters bounds the open word
+                if (this.openWord.length() > Math.max(1, this.width)) {
+                    this.splitWord();
+                }
+            }
+        }
+
+        this.markPaintDirty();
+        return this;
+    }
+
+    /**
+     * Replaces everything shown with the given text.
+     *
+     * @param text the text to show
+     * @return this element for chaining
+     */
+    @Override
+    public StreamingTextElement setText(String text) {
+        this.clear();
+        return this.append(text);
+    }
+
+    /**
+     * Removes all text from this element.
+     *
+     * @return this element for chaining
+     */
+    public StreamingTextElement clear() {
+        this.rows.clear();
+        this.head = 0;
+        this.openRow.setLength(0);
+        this.openRowWidth = 0;
+        this.openWord.setLength(0);
+        this.openWordSplit = false;
+        this.lastWord = null;
+
+        this.markPaintDirty();
+        return this;
+    }
+
+    @Override
+    protected int getRowCount() {
+        return Math.min(this.height, this.getLineCount());
+    }
+
+    @Override
+    protected void printRow(FrameBuffer target, int index) {
+        // Show the newest rows: row 0 is the oldest of the last getRowCount() rows
+        int row = this.getLineCount() - this.getRowCount() + index;
+        CharSequence text;
+
+        if (row < this.rows.size()) {
+            text = this.rows.get((this.head + row) % this.rows.size());
+        } else if (this.openWord.isEmpty()) {
+            text = this.openRow;
+        } else {
+            String word = this.applyWordCase(this.openWord.toString());
+            text = this.openRow.isEmpty() ? word : this.openRow + " " + word;
+        }
+
+        this.printRow(target, text, 0, text.length(), index);
+    }
+
+    private boolean hasOpenRow() {
+        return !this.openRow.isEmpty() || !this.openWord.isEmpty();
+    }
+
+    private void endWord() {
+        if (this.openWord.isEmpty()) return;
+
+        this.splitWord();
+        String word = this.applyWordCase(this.openWord.toString());
+        this.openWord.setLength(0);
+        this.openWordSplit = false;
+        this.lastWord = word;
+
+        int wordWidth = DisplayWidth.of(word);
+
+        if (!this.openRow.isEmpty() && this.openRowWidth + 1 + wordWidth > Math.max(1, this.width)) {
+            this.endRow();
+        }
+
+        if (!this.openRow.isEmpty()) {
+            this.openRow.append(' ');
+            this.openRowWidth++;
+        }
+        this.openRow.append(word);
+        this.openRowWidth += wordWidth;
+    }
+
+    // Moves full-width pieces of a word wider than the element into rows,
+    // keeping the rest open
+    private void splitWord() {
+        int width = Math.max(1, this.width);
+        if (DisplayWidth.of(this.openWord) <= width) return;
+
+        if (!this.openRow.isEmpty()) {
+            this.endRow();
+        }
+
+        do {
+            int cut = DisplayWidth.fit(this.openWord, 0, this.openWord.length(), width);
+            if (cut == 0) cut = DisplayWidth.nextCluster(this.openWord, 0, this.openWord.length());
+
+            this.openRow.append(this.applyWordCase(this.openWord.substring(0, cut)));
+            this.endRow();
+            this.openWord.delete(0, cut);
+            this.openWordSplit = true;
+        } while (DisplayWidth.of(this.openWord) > width);
+    }
+
+    // Cases a piece of the open word; only its first piece starts a word
+    private String applyWordCase(String piece) {
+        if (!this.openWordSplit) {
+            return this.applyWordCase(piece, this.lastWord);
+        }
+
+        switch (this.getWordCase()) {
+            case UPPERCASE:
+                return piece.toUpperCase();
+
+            case NORMAL:
+            case TITLE:
+            case LOWERCASE:
+                return piece.toLowerCase();
+
+            default:
+                return piece;
+        }
+    }
+
+    private void endRow() {
+        String row = this.openRow.toString();
+
+        if (this.rows.size() < this.capacity) {
+            this.rows.add(row);
+        } else {
+            // Overwrite the oldest row
+            this.rows.set(this.head, row);
+            this.head = (this.head + 1) % this.capacity;
+        }
+
+        this.openRow.setLength(0);
+        this.openRowWidth = 0;
+    }
+}
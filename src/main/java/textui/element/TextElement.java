@@ -1,11 +1,15 @@
 package textui.element;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import textui.exception.ChildrenNotAllowedException;
 import textui.exception.ValueCannotBeSetException;
 import textui.helper.Helper;
+import textui.render.FrameBuffer;
+import textui.text.DisplayWidth;
+import textui.text.LineBreaker;
+import textui.text.LineBreaks;
+import textui.text.Paragraph;
 
 /**
  * Represents a text-based UI element that displays formatted paragraphs of text.
@@ -23,15 +27,17 @@ import textui.helper.Helper;
 public class TextElement extends Element {
     // VARIABLES
     /**
-     * Stores the text content of the element as a list of paragraphs,
-     * where each paragraph is represented as a list of words (strings).
+     * Stores the text content of the element as rows of text, each kept as a
+     * range of the string it was wrapped from rather than as separate words.
      * 
-     * Each inner List represents one line or paragraph broken down into words,
-     * allowing flexible text processing like alignment or wrapping.
+     * The words of a row are separated by single spaces, allowing flexible
+     * text processing like alignment or wrapping.
      */
-    protected List<List<String>> paragraph = new ArrayList<>();
+    protected Paragraph paragraph = new Paragraph();
     private TextAlign textAlign = TextAlign.LEFT;
     private Case wordCase = Case.NOEDIT;
+    private LineBreaker lineBreaker = LineBreaker.GREEDY;
+    private WrapCache wrapCache = WrapCache.shared();
 
 
     // CONSTRUCTORS 
@@ -122,61 +128,31 @@ public class TextElement extends Element {
      * within the available width, respecting padding, margin, and border sizes.</p>
      * 
      * <p>If the width or height of the element is not yet set, it will calculate and set
-     * these values based on the text length and configured minimum and maximum dimensions.</p>
+     * these values based on the text's display width and configured minimum and maximum
+     * dimensions. Wide characters such as CJK ideographs count as two columns and
+     * combining marks as none.</p>
      * 
      * @param text the string text content to set; if empty or blank, the method returns immediately
      * @return this TextElement instance for method chaining
      */
     public TextElement setText(String text) {
-        List<String> words = new ArrayList<>();
-
         if (text.isEmpty() || text.isBlank()) return this;
 
-        for (String word : text.split(" ")) {
-            switch (this.wordCase) {
-                case NORMAL:
-                    if (words.size() == 0
-                        || words.getLast().endsWith(".")
-                        || words.getLast().endsWith("!")
-                        || words.getLast().endsWith("?")) {
-
-                        words.add(Helper.capitalise(word));
-                    }
-
-                    else {
-                        words.add(word);
-                    }
-                    break;
-            
-                case TITLE:
-                    words.add(Helper.capitalise(word));
-                    break;
-
-                case UPPERCASE:
-                    words.add(word.toUpperCase());
-                    break;
-
-                case LOWERCASE:
-                    words.add(word.toLowerCase());
-                    break;
-
-                case NOEDIT:
-                    words.add(word);
-                    break;
-            }
-        };
+        // Text in a box of fixed size leaves the layout as it is
+        boolean sized = this.widthSet && this.heightSet;
+        int textWidth = DisplayWidth.of(text);
         
         if (!this.widthSet) {
-            if (text.length() < this.minWidth) {
+            if (textWidth < this.minWidth) {
                 this.width = this.minWidth;
             }
 
-            else if (text.length() > this.maxWidth) {
+            else if (textWidth > this.maxWidth) {
                 this.width = this.maxWidth;
             }
 
             else {
-                this.width = text.length() 
+                this.width = textWidth 
                     + this.padding.getPaddingHorizontal() 
                     + this.margin.getMarginHorizontal() 
                     + this.border.getBorderHorizontal();
@@ -197,7 +173,7 @@ public class TextElement extends Element {
             }
 
             else {
-                this.height = text.length() / this.width;
+                this.height = textWidth / this.width;
             }
 
             this.heightSet = true;
@@ -206,29 +182,33 @@ public class TextElement extends Element {
         int contentHeight = this.getHeight();
         int contentWidth = this.getWidth();
 
-        for (int i = 0; i < contentHeight; i++) {
-            if (words.isEmpty()) break;
-
-            int rowCount = 0;
-            List<String> row = new ArrayList<>();
+        WrapCache.Key key = new WrapCache.Key(text, contentWidth, contentHeight, this.wordCase, this.lineBreaker);
+        paragraph.addAll(this.wrapCache != null ? this.wrapCache.get(key, this::wrap) : this.wrap(key));
 
-            while (rowCount <= contentWidth) {
-                if (words.isEmpty()) break;
+        if (sized) {
+            this.markPaintDirty();
+        } else {
+            this.markDirty();
+        }
+        return this;
+    }
 
-                String word = words.removeFirst();
+    private Paragraph wrap(WrapCache.Key key) {
+        String words = key.wordCase() == Case.NOEDIT ? key.text() : this.applyWordCase(key.text());
+        Paragraph rows = new Paragraph();
 
-                if (rowCount + word.length() > contentWidth) {
-                    words.addFirst(word);
-                    break;
-                };
+        LineBreaks breaks = key.lineBreaker().breakLines(words, key.width(), key.maxLines());
+        rows.addAll(breaks);
 
-                row.add(word);
-                rowCount += word.length() + 1;
+        // A word wider than the element stops wrapping; the remaining rows stay empty
+        int lines = breaks.getLineCount();
+        if (lines > 0 && breaks.getWordCount(lines - 1) == 0) {
+            for (int i = lines; i < key.maxLines(); i++) {
+                rows.add("");
             }
-            paragraph.add(row);
         }
 
-        return this;
+        return rows;
     }
 
    /**
@@ -239,6 +219,31 @@ public class TextElement extends Element {
      */
     public TextElement setTextAlign(TextAlign textAlign) {
         this.textAlign = textAlign;
+        this.markPaintDirty();
+        return this;
+    }
+
+    /**
+     * Sets how {@link #setText(String)} breaks text into rows. The default,
+     * {@link LineBreaker#GREEDY}, fills every row with as many words as fit.
+     *
+     * @param lineBreaker the line-breaking strategy to use for text set from now on
+     * @return this TextElement instance for method chaining
+     */
+    public TextElement setLineBreaker(LineBreaker lineBreaker) {
+        this.lineBreaker = lineBreaker;
+        return this;
+    }
+
+    /**
+     * Sets the cache {@link #setText(String)} looks wrapped paragraphs up in.
+     * By default every TextElement uses {@link WrapCache#shared()}.
+     *
+     * @param wrapCache the cache to use, or null to always wrap text anew
+     * @return this TextElement instance for method chaining
+     */
+    public TextElement setWrapCache(WrapCache wrapCache) {
+        this.wrapCache = wrapCache;
         return this;
     }
 
@@ -273,6 +278,24 @@ public class TextElement extends Element {
         return this.wordCase;
     }
 
+    /**
+     * Returns the strategy used to break text into rows.
+     *
+     * @return the line breaker used by {@link #setText(String)}
+     */
+    public LineBreaker getLineBreaker() {
+        return this.lineBreaker;
+    }
+
+    /**
+     * Returns the cache used to look up wrapped paragraphs.
+     *
+     * @return the wrap cache, or null if text is always wrapped anew
+     */
+    public WrapCache getWrapCache() {
+        return this.wrapCache;
+    }
+
     /**
      * Returns the current text alignment of this TextElement.
      *
@@ -307,73 +330,187 @@ public class TextElement extends Element {
     }
 
     /**
-     * Prints a single row of words onto the screen buffer at a calculated position
-     * that accounts for padding, margin, and border offsets.
+     * Prints a single row of text onto the target buffer at a calculated position
+     * that accounts for padding, margin, border and alignment offsets.
+     *
+     * <p>The row is the range {@code [start, end)} of {@code text}. Each word is
+     * copied into the buffer as one range; the spaces between words are skipped
+     * so that the element's background shows through. Words that are not plain
+     * ASCII are placed one grapheme cluster at a time, wide characters taking
+     * two cells.</p>
      *
-     * @param row the list of words to print in the row
+     * @param target the buffer to print into, whose top-left cell is this element's corner
+     * @param text the text holding the row
+     * @param start the offset of the row's first character
+     * @param end the offset just past the row's last character
      * @param rowCount the zero-based index of the row being printed (relative to content)
-     * @param extraSpacing additional horizontal offset (in characters) to apply before printing
      */
-    private void printRow(List<String> row, int rowCount, int extraSpacing) {
+    protected void printRow(FrameBuffer target, CharSequence text, int start, int end, int rowCount) {
         int borderTop = this.border.top() ? 1 : 0;
         int heightStep = this.padding.top() + this.margin.top() + borderTop;
 
         int borderLeft = this.border.left() ? 1 : 0;
         int widthStep = this.padding.left() + this.margin.left() + borderLeft;
-        int charCount = 0;
+
+        int extraSpacing = 0;
+        if (this.textAlign == TextAlign.RIGHT) {
+            extraSpacing = this.width - DisplayWidth.of(text, start, end);
+        } else if (this.textAlign == TextAlign.CENTER) {
+            extraSpacing = (this.width - DisplayWidth.of(text, start, end)) / 2;
+        }
 
         int targetRow = heightStep + rowCount;
         int targetCol = widthStep + extraSpacing;
 
-        for (String word : row) {
-            for (int j = 0; j < word.length(); j++) {
-                try {
-                    this.screen.get(targetRow).set(targetCol + j + charCount, word.charAt(j));
-                } catch (IndexOutOfBoundsException e) {
-                    // If out of bounds, skip the character
-                    continue;
-                }
+        int wordStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || text.charAt(i) == ' ') {
+                // Characters outside the element are skipped by the buffer
+                targetCol = this.printWord(target, targetRow, targetCol, text, wordStart, i) + 1;
+                wordStart = i + 1;
             }
-            charCount = charCount + word.length() + 1;
         }
     }
 
+    private int printWord(FrameBuffer target, int row, int col, CharSequence text, int start, int end) {
+        int ascii = DisplayWidth.asciiEnd(text, start, end);
+        if (ascii == end) {
+            target.setChars(row, col, text, start, end);
+            return col + end - start;
+        }
+
+        // The last ASCII character may be the base of a combining mark
+        if (ascii > start) ascii--;
+        target.setChars(row, col, text, start, ascii);
+        col += ascii - start;
+
+        for (int i = ascii; i < end; ) {
+            int next = DisplayWidth.nextCluster(text, i, end);
+            int width = DisplayWidth.clusterWidth(text, i, next);
+
+            if (width == 1) {
+                target.set(row, col, DisplayWidth.toCell(text, i, next));
+            } else if (width == 2) {
+                target.setWide(row, col, Character.codePointAt(text, i));
+            }
+
+            col += width;
+            i = next;
+        }
+
+        return col;
+    }
+
     /**
-     * Renders the current text element onto the screen buffer, applying border and alignment.
-     * Resets the screen before printing, then adds borders.
+     * Prints one row of this element's content. Only the rows that are visible
+     * are printed while painting.
+     *
+     * @param target the buffer to print into
+     * @param index the zero-based row, counted from the top of the content
+     */
+    protected void printRow(FrameBuffer target, int index) {
+        Paragraph rows = this.paragraph;
+        this.printRow(target, rows.getText(index), rows.getStart(index), rows.getEnd(index), index);
+    }
+
+    /**
+     * Transforms a word according to the {@code wordCase} setting.
+     *
+     * @param word     the word to transform
+     * @param previous the word before it, or null if it starts the text
+     * @return the transformed word
+     */
+    protected String applyWordCase(String word, String previous) {
+        switch (this.wordCase) {
+            case NORMAL:
+                if (previous == null
+                    || previous.endsWith(".")
+                    || previous.endsWith("!")
+                    || previous.endsWith("?")) {
+
+                    return Helper.capitalise(word);
+                }
+                return word;
+
+            case TITLE:
+                return Helper.capitalise(word);
+
+            case UPPERCASE:
+                return word.toUpperCase();
+
+            case LOWERCASE:
+                return word.toLowerCase();
+
+            default:
+                return word;
+        }
+    }
+
+    /**
+     * Applies the {@code wordCase} setting to every word of a text, in one pass.
+     *
+     * @param text the text to transform
+     * @return the transformed words, separated by single spaces
+     */
+    private String applyWordCase(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        int end = LineBreaker.trimmedLength(text);
+        String previous = null;
+
+        for (int pos = 0; pos < end; ) {
+            int wordEnd = LineBreaker.endOfWord(text, pos, end);
+            if (previous != null) builder.append(' ');
+
+            previous = this.applyWordCase(text.substring(pos, wordEnd), previous);
+            builder.append(previous);
+            pos = wordEnd + 1;
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns the number of rows of text this element displays.
+     *
+     * @return the number of rows that {@link #printRow(FrameBuffer, int)} can print
+     */
+    protected int getRowCount() {
+        return this.paragraph.size();
+    }
+
+    /**
+     * Renders the current text element onto its screen buffer, applying border and alignment.
+     *
+     * @return this TextElement instance for chaining.
+     */
+    @Override
+    public TextElement printScreen() {
+        super.printScreen();
+        return this;
+    }
+
+    /**
+     * Paints the borders and text of this element into the given buffer.
      * Depending on the text alignment setting, adjusts horizontal positioning:
      * - LEFT: prints rows starting at the left edge.
      * - RIGHT: prints rows right-aligned within the available width.
      * - CENTER: prints rows centered within the available width.
      *
-     * @return this TextElement instance for chaining.
+     * Only the rows that fall inside the visible part of the buffer are printed.
+     *
+     * @param target the buffer to paint into
+     * @param layout the layout computed for this element
      */
     @Override
-    public TextElement printScreen() {
-        this.resetScreen();
-        this.addBorder();
+    protected void paintContent(FrameBuffer target, LayoutResult layout) {
+        this.addBorder(target);
 
-        if (this.textAlign == TextAlign.LEFT) {
-            for (int i = 0; i < this.paragraph.size(); i++) {
-                List<String> row = this.paragraph.get(i);
-                this.printRow(row, i, 0);
-            }
-        }
+        int heightStep = this.padding.top() + this.margin.top() + (this.border.top() ? 1 : 0);
+        int firstRow = Math.max(0, target.getClipTop() - heightStep);
+        int lastRow = Math.min(this.getRowCount(), target.getClipBottom() - heightStep);
 
-        else if (this.textAlign == TextAlign.RIGHT) {
-            for (int i = 0; i < this.paragraph.size(); i++) {
-                List<String> row = this.paragraph.get(i);
-                this.printRow(row, i, Helper.findExtraSpaceInRow(row, this.width));
-            }
+        for (int i = firstRow; i < lastRow; i++) {
+            this.printRow(target, i);
         }
-
-        else if (textAlign == TextAlign.CENTER) {
-            for (int i = 0; i < this.paragraph.size(); i++) {
-                List<String> row = this.paragraph.get(i);
-                this.printRow(row, i, Helper.findExtraSpaceInRow(row, this.width) / 2);
-            }
-        }
-
-        return this;
     }
 }
@@ -0,0 +1,78 @@
+package textui.element;
+
+/**
+ * Represents the size of a row or column track in a {@link Display#GRID} container.
+ *
+ * <p>A track is fixed to a number of cells, as large as the largest child that
+ * sits in it alone ({@code auto}), or a fraction of the space the other tracks
+ * leave free. Fractions share that space in proportion to their weights, like
+ * {@code fr} units.</p>
+ *
+ * @param type  how the track is sized
+ * @param value the number of cells for a fixed track, the weight for a fraction, 0 for auto
+ */
+public record Track(Track.Type type, int value) {
+
+    /**
+     * The ways a grid track can be sized.
+     */
+    public enum Type {
+        /**
+         * A set number of cells.
+         */
+        FIXED,
+
+        /**
+         * A share of the free space, weighted by the track's value.
+         */
+        FRACTION,
+
+        /**
+         * The size of the largest child placed in this track alone.
+         */
+        AUTO;
+    }
+
+    /**
+     * Constructs a Track, checking that its value fits its type.
+     *
+     * @throws IllegalArgumentException if a fixed size is negative or a fraction is not positive
+     */
+    public Track {
+        if (type == Type.FIXED && value < 0) {
+            throw new IllegalArgumentException("a fixed track cannot be negative");
+        }
+        if (type == Type.FRACTION && value <= 0) {
+            throw new IllegalArgumentException("a fraction must be positive");
+        }
+    }
+
+    /**
+     * Returns a track of a set number of cells.
+     *
+     * @param cells the size of the track
+     * @return the track
+     */
+    public static Track fixed(int cells) {
+        return new Track(Type.FIXED, cells);
+    }
+
+    /**
+     * Returns a track that takes a share of the free space.
+     *
+     * @param weight the track's share relative to the other fractions
+     * @return the track
+     */
+    public static Track fraction(int weight) {
+        return new Track(Type.FRACTION, weight);
+    }
+
+    /**
+     * Returns a track as large as the largest child placed in it alone.
+     *
+     * @return the track
+     */
+    public static Track auto() {
+        return new Track(Type.AUTO, 0);
+    }
+}
@@ -2,13 +2,16 @@ package textui.element;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntFunction;
+
+import textui.text.DisplayWidth;
 
 /**
  * A text element that displays a list of items with bullet points.
  * Each item is added as a single-line entry prefixed by a dash ("-").
  * The layout respects optional min/max height and width constraints.
  */
-public class UnsortedListElement extends TextElement {
+public class UnsortedListElement extends ListElement {
 
     /**
      * Constructs an UnsortedListElement with default dimensions.
@@ -85,6 +88,55 @@ public class UnsortedListElement extends TextElement {
         return this;
     }
 
+    /**
+     * Displays the items of a list, fetching only the visible ones when painting.
+     *
+     * @param items the items to display
+     * @return this element for chaining
+     */
+    @Override
+    public UnsortedListElement setItems(List<String> items) {
+        super.setItems(items);
+        return this;
+    }
+
+    /**
+     * Displays {@code count} items produced on demand by {@code source}.
+     *
+     * @param count  the number of items
+     * @param source returns the text of the item at a given index
+     * @return this element for chaining
+     */
+    @Override
+    public UnsortedListElement setItems(int count, IntFunction<String> source) {
+        super.setItems(count, source);
+        return this;
+    }
+
+    /**
+     * Scrolls the list so that the item at {@code offset} is shown on the first row.
+     *
+     * @param offset the index of the first visible item
+     * @return this element for chaining
+     */
+    @Override
+    public UnsortedListElement setScrollOffset(int offset) {
+        super.setScrollOffset(offset);
+        return this;
+    }
+
+    /**
+     * Scrolls the list by a number of rows.
+     *
+     * @param rows the number of rows to scroll down, or up if negative
+     * @return this element for chaining
+     */
+    @Override
+    public UnsortedListElement scrollBy(int rows) {
+        super.scrollBy(rows);
+        return this;
+    }
+
     /**
      * Adds an item to the unsorted list. The item is prefixed with a dash
      * and split into words based on available width. If height or width
@@ -94,15 +146,19 @@ public class UnsortedListElement extends TextElement {
      * @return this element for chaining
      */
     public UnsortedListElement addItem(String item) {
-        if (!this.heightSet) this.height++;
+        if (!this.heightSet) {
+            this.height++;
+            this.markDirty();
+        }
 
         int contentHeight = Math.min(Math.max(this.minHeight, this.height), this.maxHeight);
         if (paragraph.size() >= contentHeight) return this;
 
         List<String> listItem = new ArrayList<>();
 
-        if (!this.widthSet && (item.length()+item.split(" ").length+1) > this.width) {
-            this.width = item.length() + item.split(" ").length + 1;
+        int itemWidth = DisplayWidth.of(item);
+        if (!this.widthSet && (itemWidth+item.split(" ").length+1) > this.width) {
+            this.width = itemWidth + item.split(" ").length + 1;
         }
 
         int contentWidth = Math.min(Math.max(this.minWidth, this.width), this.maxWidth);
@@ -110,13 +166,26 @@ public class UnsortedListElement extends TextElement {
 
         int charCount = 1;
         for (String word : item.split(" ")) {
-            if (word.length() + charCount > contentWidth) break;
+            int wordWidth = DisplayWidth.of(word);
+            if (wordWidth + charCount > contentWidth) break;
 
             listItem.add(word);
-            charCount = charCount + word.length() + 1;
+            charCount = charCount + wordWidth + 1;
         }
 
-        this.paragraph.add(listItem);
+        this.paragraph.add(String.join(" ", listItem));
+        this.markDirty();
         return this;
     }
+
+    /**
+     * Returns a dash, printed before the item.
+     *
+     * @param index the zero-based index of the item
+     * @return the marker for that item
+     */
+    @Override
+    protected String getMarker(int index) {
+        return "-";
+    }
 }
@@ -0,0 +1,24 @@
+package textui.element;
+
+/**
+ * Represents the visible part of an element, such as the rows and columns of
+ * a document that fit in the terminal.
+ *
+ * @param top    The first visible row.
+ * @param left   The first visible column.
+ * @param height The number of visible rows.
+ * @param width  The number of visible columns.
+ */
+public record Viewport(int top, int left, int height, int width) {
+
+    /**
+     * Returns this viewport moved by the given number of rows and columns.
+     *
+     * @param rows the number of rows to scroll down, or up if negative
+     * @param cols the number of columns to scroll right, or left if negative
+     * @return the scrolled viewport
+     */
+    public Viewport scrollBy(int rows, int cols) {
+        return new Viewport(this.top + rows, this.left + cols, this.height, this.width);
+    }
+}
@@ -0,0 +1,256 @@
+package textui.element;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import textui.text.LineBreaker;
+import textui.text.Paragraph;
+
+/**
+ * A bounded, thread-safe cache of wrapped paragraphs, shared by the text
+ * elements that display the same text.
+ *
+ * <p>Wrapping depends only on the text, the width and number of rows it is
+ * wrapped into, the word case and the line-breaking strategy, which together
+ * form the {@link Key}. Labels and help texts that appear in many elements, or
+ * at a few different widths, are therefore wrapped once per distinct key.</p>
+ *
+ * <p>The cache is bounded both by a number of paragraphs and by their weight:
+ * the characters of the text each key keeps alive, plus those of any cased
+ * copy the paragraph holds, plus one per row. A few large documents wrapped at
+ * several widths therefore cannot pin more than the weight budget. When either
+ * bound is exceeded, the least recently used entries are evicted, and a single
+ * paragraph heavier than the whole budget is returned without being cached.</p>
+ *
+ * <p>Cached paragraphs may be shared by any number of elements and must not be
+ * modified; elements copy their rows' offsets out of them. A paragraph is
+ * computed outside the cache's lock, so a slow wrap never blocks lookups of
+ * other keys; two threads missing on the same key at once may both compute
+ * it.</p>
+ */
+public class WrapCache {
+    /**
+     * The number of paragraphs kept by the shared cache.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The weight, in characters, of the paragraphs kept by the shared cache.
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 1 << 20;
+
+    private static final WrapCache SHARED = new WrapCache(DEFAULT_CAPACITY, DEFAULT_MAX_WEIGHT);
+
+    /**
+     * Identifies a wrapped paragraph.
+     *
+     * @param text        the text before word casing is applied
+     * @param width       the number of columns the text is wrapped into
+     * @param maxLines    the number of rows the text is wrapped into
+     * @param wordCase    the casing applied to every word
+     * @param lineBreaker the strategy used to choose the breaks
+     */
+    public record Key(String text, int width, int maxLines, Case wordCase, LineBreaker lineBreaker) {}
+
+    private final int capacity;
+    private final long maxWeight;
+    private final LinkedHashMap<Key, Paragraph> entries;
+    private long weight = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs an empty WrapCache that holds at most {@code capacity}
+     * paragraphs, weighing at most {@link #DEFAULT_MAX_WEIGHT} characters.
+     *
+     * @param capacity the maximum number of paragraphs to keep
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public WrapCache(int capacity) {
+        this(capacity, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * Constructs an empty WrapCache that holds at most {@code capacity}
+     * paragraphs, weighing at most {@code maxWeight} characters together.
+     *
+     * @param capacity  the maximum number of paragraphs to keep
+     * @param maxWeight the maximum total weight of the paragraphs kept
+     * @throws IllegalArgumentException if the capacity or weight is not positive
+     */
+    public WrapCache(int capacity, long maxWeight) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive");
+        }
+
+        this.capacity = capacity;
+        this.maxWeight = maxWeight;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the cache shared by every {@link TextElement} by default.
+     *
+     * @return the shared cache
+     */
+    public static WrapCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the maximum number of paragraphs this cache keeps.
+     *
+     * @return the capacity of the cache
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the maximum total weight of the paragraphs this cache keeps.
+     *
+     * @return the weight budget, in characters
+     */
+    public long getMaxWeight() {
+        return this.maxWeight;
+    }
+
+    /**
+     * Returns the total weight of the paragraphs currently cached.
+     *
+     * @return the weight of the entries, in characters
+     */
+    public synchronized long getWeight() {
+        return this.weight;
+    }
+
+    /**
+     * Returns the number of paragraphs currently cached.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns how many lookups found their paragraph in the cache.
+     *
+     * @return the number of hits since the statistics were last reset
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns how many lookups had to wrap their paragraph.
+     *
+     * @return the number of misses since the statistics were last reset
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns how many paragraphs were evicted to make room for new ones.
+     *
+     * @return the number of evictions since the statistics were last reset
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Returns the paragraph cached for {@code key}, computing and caching it
+     * with {@code wrap} if it is missing.
+     *
+     * @param key  the key of the paragraph
+     * @param wrap computes the paragraph for a key
+     * @return the cached paragraph, which must not be modified
+     */
+    public Paragraph get(Key key, Function<Key, Paragraph> wrap) {
+        Paragraph rows;
+        synchronized (this) {
+            rows = this.entries.get(key);
+        }
+
+        if (rows != null) {
+            this.hits.increment();
+            return rows;
+        }
+
+        this.misses.increment();
+        rows = wrap.apply(key);
+
+        long rowsWeight = weigh(key, rows);
+        if (rowsWeight > this.maxWeight) return rows;
+
+        synchronized (this) {
+            Paragraph previous = this.entries.put(key, rows);
+            if (previous != null) this.weight -= weigh(key, previous);
+            this.weight += rowsWeight;
+            this.evict();
+        }
+        return rows;
+    }
+
+    /**
+     * Removes every cached paragraph.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.weight = 0;
+    }
+
+    // Removes the least recently used entries until both bounds hold again;
+    // must be called while holding the lock
+    private void evict() {
+        Iterator<Map.Entry<Key, Paragraph>> eldest = this.entries.entrySet().iterator();
+
+        while (this.entries.size() > this.capacity || this.weight > this.maxWeight) {
+            Map.Entry<Key, Paragraph> entry = eldest.next();
+            this.weight -= weigh(entry.getKey(), entry.getValue());
+            eldest.remove();
+            this.evictions.increment();
+        }
+    }
+
+    // The characters an entry keeps alive: the key's text, every other text
+    // the rows point into, such as a cased copy, and one for each row
+    private static long weigh(Key key, Paragraph rows) {
+        long weight = key.text().length() + rows.size();
+        CharSequence counted = key.text();
+
+        for (int row = 0; row < rows.size(); row++) {
+            CharSequence text = rows.getText(row);
+            if (text != counted && text != key.text()) {
+                weight += text.length();
+                counted = text;
+            }
+        }
+
+        return weight;
+    }
+
+    /**
+     * Sets the hit, miss and eviction counts back to zero.
+     */
+    public void resetStats() {
+        this.hits.reset();
+        this.misses.reset();
+        this.evictions.reset();
+    }
+}
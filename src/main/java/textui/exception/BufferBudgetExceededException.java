@@ -0,0 +1,17 @@
+package textui.exception;
+
+/**
+ * Exception thrown when rendering a session would take the frame buffers of
+ * all sessions past the memory budget of their session manager.
+ */
+public class BufferBudgetExceededException extends Exception {
+
+    /**
+     * Constructs a new BufferBudgetExceededException with the specified detail message.
+     *
+     * @param message the detail message explaining which budget was exceeded
+     */
+    public BufferBudgetExceededException(String message) {
+        super(message);
+    }
+}
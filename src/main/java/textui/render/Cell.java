@@ -0,0 +1,59 @@
+package textui.render;
+
+/**
+ * The format of a frame buffer cell: a code point and the packed {@link Style}
+ * it is drawn with, in a single {@code long}.
+ *
+ * <p>The code point takes the low 32 bits and the style the high 32 bits. A
+ * whole screen is therefore one {@code long[]}, with no object per cell, and
+ * comparing two cells compares both their characters and their styles. Since
+ * a whole code point fits, characters outside the Basic Multilingual Plane,
+ * such as emoji, take a single cell like any other character.</p>
+ */
+public final class Cell {
+    private Cell() {
+    }
+
+    /**
+     * Packs a code point and a style into a cell.
+     *
+     * @param codePoint the character, which may be a supplementary code point
+     * @param style     the style, as returned by {@link Style#pack()}
+     * @return the cell
+     */
+    public static long of(int codePoint, int style) {
+        return (long) style << 32 | (codePoint & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the code point of a cell.
+     *
+     * @param cell the cell
+     * @return the code point it holds
+     */
+    public static int codePointOf(long cell) {
+        return (int) cell;
+    }
+
+    /**
+     * Returns the character of a cell as a single {@code char}.
+     *
+     * @param cell the cell
+     * @return the character it holds, or {@code U+FFFD} if it holds a
+     *         supplementary code point
+     */
+    public static char charOf(long cell) {
+        int codePoint = (int) cell;
+        return Character.isBmpCodePoint(codePoint) ? (char) codePoint : '\uFFFD';
+    }
+
+    /**
+     * Returns the packed style of a cell.
+     *
+     * @param cell the cell
+     * @return the style it is drawn with, as returned by {@link Style#pack()}
+     */
+    public static int styleOf(long cell) {
+        return (int) (cell >>> 32);
+    }
+}
@@ -0,0 +1,218 @@
+package textui.render;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@link FrameBuffer} whose cells live in native memory, for canvases too
+ * large to keep on the Java heap.
+ *
+ * <p>The cells are stored in a buffer from {@link ByteBuffer#allocateDirect(int)},
+ * one UTF-16 {@code char} per cell, so box-drawing borders and wide CJK text
+ * are kept. A supplementary character is stored as {@code U+FFFD}, and styles
+ * are not kept.</p>
+ *
+ * <p>{@link #writeTo(WritableByteChannel)} encodes the rows as UTF-8, the
+ * encoding {@code TextUI} writes, each followed by a newline. The rows pass
+ * through a small direct buffer that is handed to the {@link FileChannel} or
+ * socket whenever it fills, so the canvas is never copied onto the heap.</p>
+ *
+ * <p>At two bytes per cell, a 10,000 by 10,000 canvas takes about 200 MB of
+ * native memory and nothing on the heap beyond this object. That size holds
+ * because supplementary characters are not kept. A direct buffer holds at most
+ * {@link Integer#MAX_VALUE} bytes, so a canvas can have a little over a billion
+ * cells. Elements paint into it with {@code Element.renderTo(FrameBuffer)}.</p>
+ */
+public class DirectFrameBuffer extends FrameBuffer {
+    // The size of the buffer rows are encoded into before they are written
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    // Receives each filled chunk, ready to be read
+    @FunctionalInterface
+    private interface ChunkSink {
+        void accept(ByteBuffer chunk) throws IOException;
+    }
+
+    private ByteBuffer bytes;
+
+    /**
+     * Constructs a DirectFrameBuffer of the given size with every cell set to a space.
+     *
+     * @param height the number of rows
+     * @param width  the number of columns
+     * @throws IllegalArgumentException if the canvas needs more bytes than a
+     *         direct buffer can hold
+     */
+    public DirectFrameBuffer(int height, int width) {
+        super((long[]) null);
+        this.reset(height, width, ' ');
+    }
+
+    private DirectFrameBuffer(DirectFrameBuffer parent, int top, int left, int height, int width) {
+        super(parent, top, left, height, width);
+        this.bytes = parent.bytes;
+    }
+
+
+    // GETTERS
+    /**
+     * Returns true, since the cells of this buffer are stored off the heap.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isDirect() {
+        return true;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeTo(WritableByteChannel)} writes:
+     * the UTF-8 encoding of every row plus one newline per row. The rows are
+     * encoded to count them, so this takes as long as writing them.
+     *
+     * @return the size of the rendered text in bytes
+     */
+    public long byteSize() {
+        long[] size = { 0 };
+        try {
+            this.encodeRows(chunk -> size[0] += chunk.remaining());
+        } catch (IOException e) {
+            // Counting does no I/O
+            throw new AssertionError(e);
+        }
+        return size[0];
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Returns a view of a rectangular region of this buffer that shares its
+     * native memory.
+     *
+     * @param top    the row of this buffer where the region starts
+     * @param left   the column of this buffer where the region starts
+     * @param height the number of rows in the region
+     * @param width  the number of columns in the region
+     * @return a view sharing this buffer's cells
+     */
+    @Override
+    public DirectFrameBuffer region(int top, int left, int height, int width) {
+        return new DirectFrameBuffer(this, top, left, height, width);
+    }
+
+    /**
+     * Writes the visible rows of this buffer as UTF-8, each followed by a
+     * newline, to a channel.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if the channel fails
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        this.encodeRows(chunk -> {
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+        });
+    }
+
+    /**
+     * Writes the visible rows of this buffer as UTF-8, each followed by a
+     * newline, to a file starting at the given position, without changing the
+     * channel's own position.
+     *
+     * @param channel  the file to write to
+     * @param position the file offset to start writing at
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(FileChannel channel, long position) throws IOException {
+        long[] offset = { position };
+        this.encodeRows(chunk -> {
+            while (chunk.hasRemaining()) {
+                offset[0] += channel.write(chunk, offset[0]);
+            }
+        });
+    }
+
+    private void encodeRows(ChunkSink sink) throws IOException {
+        // Each call has its own chunk, so concurrent writers do not interfere
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES);
+
+        for (int row = this.getClipTop(); row < this.getClipBottom(); row++) {
+            int to = this.getClipRight();
+
+            for (int col = this.getClipLeft(); col < to; col++) {
+                // Room for the longest encoding of a cell
+                if (chunk.remaining() <= FrameWriter.MAX_BYTES_PER_CELL) drain(chunk, sink);
+                col = FrameWriter.putCell(chunk, this, row, col, to);
+            }
+
+            if (!chunk.hasRemaining()) drain(chunk, sink);
+            chunk.put((byte) '\n');
+        }
+
+        drain(chunk, sink);
+    }
+
+    private static void drain(ByteBuffer chunk, ChunkSink sink) throws IOException {
+        chunk.flip();
+        if (chunk.hasRemaining()) sink.accept(chunk);
+        chunk.clear();
+    }
+
+
+    // STORAGE METHODS
+    @Override
+    protected void allocate(int size) {
+        int capacity;
+        try {
+            // The slot count is an int product as well, so it is checked too
+            capacity = Math.multiplyExact(Math.multiplyExact(this.getHeight(), this.getWidth()), Character.BYTES);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("a " + this.getHeight() + " by " + this.getWidth()
+                + " canvas does not fit in a direct buffer", e);
+        }
+
+        if (this.bytes == null || this.bytes.capacity() < capacity) {
+            this.bytes = ByteBuffer.allocateDirect(capacity);
+        }
+    }
+
+    @Override
+    protected long read(int index) {
+        return this.bytes.getChar(index * Character.BYTES);
+    }
+
+    @Override
+    protected void write(int index, long cell) {
+        this.bytes.putChar(index * Character.BYTES, Cell.charOf(cell));
+    }
+
+    @Override
+    protected void fill(int from, int to, long cell) {
+        char c = Cell.charOf(cell);
+        for (int i = from; i < to; i++) {
+            this.bytes.putChar(i * Character.BYTES, c);
+        }
+    }
+
+    @Override
+    protected void copy(FrameBuffer source, int from, int to, int length) {
+        if (source instanceof DirectFrameBuffer direct) {
+            this.bytes.put(to * Character.BYTES, direct.bytes, from * Character.BYTES, length * Character.BYTES);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            this.write(to + i, source.read(from + i));
+        }
+    }
+
+    @Override
+    protected void copy(CharSequence text, int from, int to, int length) {
+        for (int i = 0; i < length; i++) {
+            this.bytes.putChar((to + i) * Character.BYTES, text.charAt(from + i));
+        }
+    }
+}
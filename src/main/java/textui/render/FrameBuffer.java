@@ -0,0 +1,693 @@
+package textui.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import textui.text.DisplayWidth;
+
+/**
+ * A rectangular grid of styled characters backed by a single flat {@code long[]}.
+ *
+ * <p>Cell {@code (row, col)} lives at index {@code offset + row * stride + col}
+ * of the backing array. Keeping the whole screen in one primitive array means
+ * that rendering a frame does not box characters or allocate a list per row,
+ * and that the array can be reused from one frame to the next as long as it is
+ * large enough.</p>
+ *
+ * <p>A buffer can hand out views of a rectangular region of itself with
+ * {@link #region(int, int, int, int)}. A view shares the backing array with the
+ * buffer it came from but has its own origin, so an element can paint itself
+ * using coordinates relative to its own top-left corner while writing straight
+ * into the screen of its root. Each view is clipped to the visible part of the
+ * buffer it was taken from.</p>
+ *
+ * <p>Writes that fall outside the visible area are ignored, so callers may paint
+ * content that overflows its container without checking bounds themselves.</p>
+ *
+ * <p>Each cell holds a character and the {@link Style} it is drawn with, packed
+ * into one {@code long} as described by {@link Cell}. Characters are written
+ * with the buffer's current style, set with {@link #setStyle(int)}; a view
+ * starts with the style of the buffer it was taken from.</p>
+ *
+ * <p>A character two columns wide takes two cells: the character itself, then
+ * {@link #WIDE_TAIL}. Writers skip the second cell, since the terminal fills
+ * both columns with the first. A surrogate pair written one {@code char} per
+ * cell is also accepted, and is written as the character it encodes.</p>
+ *
+ * <p>Every access to the backing storage goes through a few protected methods,
+ * which {@link DirectFrameBuffer} overrides to keep its cells off the heap.</p>
+ */
+public class FrameBuffer {
+    /**
+     * The value of the cell to the right of a character two columns wide.
+     */
+    public static final char WIDE_TAIL = '\0';
+
+    private long[] cells;
+    private final boolean view;
+    private int style = 0;
+    private int offset;
+    private int height;
+    private int width;
+    private int stride;
+
+    // Visible area in local coordinates: rows [clipTop, clipBottom), columns [clipLeft, clipRight)
+    private int clipTop;
+    private int clipLeft;
+    private int clipBottom;
+    private int clipRight;
+
+    /**
+     * Constructs an empty FrameBuffer with no rows or columns.
+     */
+    public FrameBuffer() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructs a FrameBuffer of the given size with every cell set to a space.
+     *
+     * @param height the number of rows
+     * @param width  the number of columns
+     */
+    public FrameBuffer(int height, int width) {
+        this(new long[Math.max(0, height) * Math.max(0, width)]);
+        this.reset(height, width, ' ');
+    }
+
+    /**
+     * Constructs an empty, unsized FrameBuffer over the given array. Subclasses
+     * that keep their cells elsewhere pass null and size themselves with
+     * {@link #reset(int, int, char)}.
+     *
+     * @param cells the backing array, or null if the subclass provides storage
+     */
+    protected FrameBuffer(long[] cells) {
+        this.cells = cells;
+        this.view = false;
+    }
+
+    /**
+     * Constructs a view of a region of {@code parent}; see {@link #region(int, int, int, int)}.
+     *
+     * @param parent the buffer the view is taken from
+     * @param top    the row of the parent where the region starts
+     * @param left   the column of the parent where the region starts
+     * @param height the number of rows in the region
+     * @param width  the number of columns in the region
+     */
+    protected FrameBuffer(FrameBuffer parent, int top, int left, int height, int width) {
+        this.view = true;
+        this.aim(parent, top, left, height, width);
+    }
+
+    // Points this view at a region of parent, as if it had just been constructed
+    // there. Lets a ScratchArena reuse view objects from one frame to the next.
+    void aim(FrameBuffer parent, int top, int left, int height, int width) {
+        this.cells = parent.cells;
+        this.style = parent.style;
+        this.offset = parent.offset + top * parent.stride + left;
+        this.height = Math.max(0, height);
+        this.width = Math.max(0, width);
+        this.stride = parent.stride;
+
+        this.clipTop = Math.max(0, parent.clipTop - top);
+        this.clipLeft = Math.max(0, parent.clipLeft - left);
+        this.clipBottom = Math.max(this.clipTop, Math.min(this.height, parent.clipBottom - top));
+        this.clipRight = Math.max(this.clipLeft, Math.min(this.width, parent.clipRight - left));
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the number of rows in this buffer.
+     *
+     * @return the height of the buffer
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the number of columns in this buffer.
+     *
+     * @return the width of the buffer
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the distance, in array slots, between the start of two consecutive rows.
+     *
+     * @return the row stride of the backing array
+     */
+    public int getStride() {
+        return this.stride;
+    }
+
+    /**
+     * Returns the character stored at the given cell.
+     *
+     * @param row the zero-based row index
+     * @param col the zero-based column index
+     * @return the character at {@code (row, col)}
+     * @throws IndexOutOfBoundsException if the cell lies outside the visible area
+     */
+    public char get(int row, int col) {
+        if (!this.contains(row, col)) {
+            throw new IndexOutOfBoundsException("cell (" + row + ", " + col + ") is outside the buffer");
+        }
+
+        return Cell.charOf(this.read(this.offset + row * this.stride + col));
+    }
+
+    /**
+     * Returns the code point stored at the given cell. Unlike
+     * {@link #get(int, int)}, this also returns supplementary characters.
+     *
+     * @param row the zero-based row index
+     * @param col the zero-based column index
+     * @return the code point at {@code (row, col)}
+     * @throws IndexOutOfBoundsException if the cell lies outside the visible area
+     */
+    public int getCodePoint(int row, int col) {
+        return Cell.codePointOf(this.getCell(row, col));
+    }
+
+    /**
+     * Returns the character and style stored at the given cell.
+     *
+     * @param row the zero-based row index
+     * @param col the zero-based column index
+     * @return the cell at {@code (row, col)}, in the format of {@link Cell}
+     * @throws IndexOutOfBoundsException if the cell lies outside the visible area
+     */
+    public long getCell(int row, int col) {
+        if (!this.contains(row, col)) {
+            throw new IndexOutOfBoundsException("cell (" + row + ", " + col + ") is outside the buffer");
+        }
+
+        return this.read(this.offset + row * this.stride + col);
+    }
+
+    /**
+     * Returns the style characters are currently written with.
+     *
+     * @return the packed style, as returned by {@link Style#pack()}
+     */
+    public int getStyle() {
+        return this.style;
+    }
+
+    /**
+     * Checks whether the given cell lies inside the visible area of this buffer.
+     *
+     * @param row the zero-based row index
+     * @param col the zero-based column index
+     * @return true if {@code (row, col)} can be read and written
+     */
+    public boolean contains(int row, int col) {
+        return row >= this.clipTop && row < this.clipBottom
+            && col >= this.clipLeft && col < this.clipRight;
+    }
+
+    /**
+     * Returns the first visible row of this buffer.
+     *
+     * @return the first row that can be written, inclusive
+     */
+    public int getClipTop() {
+        return this.clipTop;
+    }
+
+    /**
+     * Returns the first visible column of this buffer.
+     *
+     * @return the first column that can be written, inclusive
+     */
+    public int getClipLeft() {
+        return this.clipLeft;
+    }
+
+    /**
+     * Returns the row just below the visible area of this buffer.
+     *
+     * @return the last row that can be written, exclusive
+     */
+    public int getClipBottom() {
+        return this.clipBottom;
+    }
+
+    /**
+     * Returns the column just right of the visible area of this buffer.
+     *
+     * @return the last column that can be written, exclusive
+     */
+    public int getClipRight() {
+        return this.clipRight;
+    }
+
+    // Direct access for FrameWriter, which encodes rows without copying them;
+    // null when the cells are not kept in a long array
+    long[] cells() {
+        return this.cells;
+    }
+
+    int index(int row, int col) {
+        return this.offset + row * this.stride + col;
+    }
+
+    /**
+     * Checks whether this buffer stores its cells outside the Java heap.
+     *
+     * @return true for a {@link DirectFrameBuffer} or a view of one
+     */
+    public boolean isDirect() {
+        return false;
+    }
+
+    /**
+     * Checks whether any cell of this buffer is visible.
+     *
+     * @return true if the visible area is empty
+     */
+    public boolean isClipped() {
+        return this.clipTop >= this.clipBottom || this.clipLeft >= this.clipRight;
+    }
+
+    // The number of cells the backing array holds; used by FrameBufferPool
+    int capacity() {
+        return this.cells == null ? 0 : this.cells.length;
+    }
+
+    boolean isView() {
+        return this.view;
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Returns a view of a rectangular region of this buffer.
+     *
+     * <p>Cell {@code (0, 0)} of the view is cell {@code (top, left)} of this buffer.
+     * The region may extend past the edges of this buffer; the parts that do are
+     * simply not visible through the view.</p>
+     *
+     * @param top    the row of this buffer where the region starts
+     * @param left   the column of this buffer where the region starts
+     * @param height the number of rows in the region
+     * @param width  the number of columns in the region
+     * @return a view sharing this buffer's cells
+     */
+    public FrameBuffer region(int top, int left, int height, int width) {
+        return new FrameBuffer(this, top, left, height, width);
+    }
+
+    /**
+     * Sets the style that characters written from now on are drawn with.
+     * Views taken afterwards start with this style.
+     *
+     * @param style the packed style, as returned by {@link Style#pack()}
+     */
+    public void setStyle(int style) {
+        this.style = style;
+    }
+
+    /**
+     * Resizes the buffer and sets every cell to the given character.
+     *
+     * <p>The backing array is only reallocated when it is too small to hold the
+     * new size, so resetting a buffer to the same dimensions every frame does
+     * not allocate.</p>
+     *
+     * @param height the new number of rows
+     * @param width  the new number of columns
+     * @param c      the character to fill every cell with
+     * @throws IllegalStateException if this buffer is a view of another buffer
+     */
+    public void reset(int height, int width, char c) {
+        if (this.view) {
+            throw new IllegalStateException("a region view cannot be resized");
+        }
+
+        this.height = Math.max(0, height);
+        this.width = Math.max(0, width);
+        this.stride = this.strideFor(this.width);
+
+        this.clipTop = 0;
+        this.clipLeft = 0;
+        this.clipBottom = this.height;
+        this.clipRight = this.width;
+
+        int size = this.height * this.stride;
+        this.allocate(size);
+        this.fill(0, size, Cell.of(c, this.style));
+    }
+
+    /**
+     * Sets every visible cell of this buffer to the given character.
+     *
+     * @param c the character to write
+     */
+    public void clear(char c) {
+        for (int row = this.clipTop; row < this.clipBottom; row++) {
+            this.fillRow(row, this.clipLeft, this.clipRight, c);
+        }
+    }
+
+    /**
+     * Writes a character into a cell. Writes outside the visible area are ignored.
+     *
+     * @param row       the zero-based row index
+     * @param col       the zero-based column index
+     * @param codePoint the character to write, which may be a supplementary code point
+     */
+    public void set(int row, int col, int codePoint) {
+        if (this.contains(row, col)) {
+            this.write(this.offset + row * this.stride + col, Cell.of(codePoint, this.style));
+        }
+    }
+
+    /**
+     * Writes a character and its style into a cell, ignoring the current style.
+     * Writes outside the visible area are ignored.
+     *
+     * @param row  the zero-based row index
+     * @param col  the zero-based column index
+     * @param cell the cell to write, in the format of {@link Cell}
+     */
+    public void setCell(int row, int col, long cell) {
+        if (this.contains(row, col)) {
+            this.write(this.offset + row * this.stride + col, cell);
+        }
+    }
+
+    /**
+     * Writes a character two columns wide into the cells {@code col} and
+     * {@code col + 1}. If only one of them is visible, it is set to a space
+     * instead, because half of the character cannot be shown.
+     *
+     * @param row       the zero-based row index
+     * @param col       the column of the character's left half
+     * @param codePoint the character, which may be a supplementary code point
+     */
+    public void setWide(int row, int col, int codePoint) {
+        boolean left = this.contains(row, col);
+        boolean right = this.contains(row, col + 1);
+
+        if (left && right) {
+            this.set(row, col, codePoint);
+            this.set(row, col + 1, WIDE_TAIL);
+        } else {
+            this.set(row, col, ' ');
+            this.set(row, col + 1, ' ');
+        }
+    }
+
+    /**
+     * Copies the characters {@code [start, end)} of a text into a row, starting
+     * at column {@code col}. Characters that would fall outside the visible area
+     * are skipped.
+     *
+     * @param row   the zero-based row index
+     * @param col   the column that receives {@code text.charAt(start)}
+     * @param text  the text to copy from
+     * @param start the first character to copy (inclusive)
+     * @param end   the last character to copy (exclusive)
+     */
+    public void setChars(int row, int col, CharSequence text, int start, int end) {
+        if (row < this.clipTop || row >= this.clipBottom) return;
+
+        int from = Math.max(start, start + this.clipLeft - col);
+        int to = Math.min(end, start + this.clipRight - col);
+        if (from >= to) return;
+
+        this.copy(text, from, this.offset + row * this.stride + col + (from - start), to - from);
+    }
+
+    /**
+     * Fills the columns {@code [from, to)} of a row with the given character.
+     * The range is clipped to the visible area.
+     *
+     * @param row  the zero-based row index
+     * @param from the first column to fill (inclusive)
+     * @param to   the last column to fill (exclusive)
+     * @param c    the character to write
+     */
+    public void fillRow(int row, int from, int to, char c) {
+        if (row < this.clipTop || row >= this.clipBottom) return;
+
+        int start = Math.max(this.clipLeft, from);
+        int end = Math.min(this.clipRight, to);
+        if (start >= end) return;
+
+        int rowOffset = this.offset + row * this.stride;
+        this.fill(rowOffset + start, rowOffset + end, Cell.of(c, this.style));
+    }
+
+    /**
+     * Fills the rows {@code [from, to)} of a column with the given character.
+     * The range is clipped to the visible area.
+     *
+     * @param col  the zero-based column index
+     * @param from the first row to fill (inclusive)
+     * @param to   the last row to fill (exclusive)
+     * @param c    the character to write
+     */
+    public void fillColumn(int col, int from, int to, char c) {
+        if (col < this.clipLeft || col >= this.clipRight) return;
+
+        int start = Math.max(this.clipTop, from);
+        int end = Math.min(this.clipBottom, to);
+
+        long cell = Cell.of(c, this.style);
+        for (int row = start; row < end; row++) {
+            this.write(this.offset + row * this.stride + col, cell);
+        }
+    }
+
+    /**
+     * Copies the visible cells of {@code source} into this buffer so that the
+     * source's top-left cell lands on {@code (top, left)}. Cells that would fall
+     * outside the visible area of this buffer are skipped.
+     *
+     * @param source the buffer to copy from
+     * @param top    the row in this buffer that receives the source's first row
+     * @param left   the column in this buffer that receives the source's first column
+     */
+    public void copyFrom(FrameBuffer source, int top, int left) {
+        int colStart = Math.max(source.clipLeft, this.clipLeft - left);
+        int colEnd = Math.min(source.clipRight, this.clipRight - left);
+        if (colStart >= colEnd) return;
+
+        int rowStart = Math.max(source.clipTop, this.clipTop - top);
+        int rowEnd = Math.min(source.clipBottom, this.clipBottom - top);
+
+        for (int row = rowStart; row < rowEnd; row++) {
+            this.copy(
+                source, source.offset + row * source.stride + colStart,
+                this.offset + (top + row) * this.stride + left + colStart,
+                colEnd - colStart);
+        }
+    }
+
+    /**
+     * Finds the first column, at or after {@code from}, where a row of this buffer
+     * differs from the same row of {@code other}. Both buffers must have the same
+     * width and the row must be visible in both.
+     *
+     * @param other the buffer to compare against
+     * @param row   the row to compare
+     * @param from  the first column to compare
+     * @return the first differing column, or -1 if the rest of the row is identical
+     */
+    public int mismatch(FrameBuffer other, int row, int from) {
+        int thisRow = this.offset + row * this.stride;
+        int otherRow = other.offset + row * other.stride;
+
+        if (this.cells != null && other.cells != null) {
+            int index = Arrays.mismatch(
+                this.cells, thisRow + from, thisRow + this.width,
+                other.cells, otherRow + from, otherRow + this.width);
+
+            return index == -1 ? -1 : from + index;
+        }
+
+        for (int col = from; col < this.width; col++) {
+            if (this.read(thisRow + col) != other.read(otherRow + col)) return col;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a cell holds the right half of a character two columns
+     * wide, which writers skip. A {@link #WIDE_TAIL} left behind after its
+     * character was overwritten is not a continuation and is written as a space.
+     *
+     * @param row the zero-based row index
+     * @param col the zero-based column index
+     * @return true if the cell and the one to its left are visible and the
+     *         cell continues the character to its left
+     */
+    public boolean isContinuation(int row, int col) {
+        if (col <= this.clipLeft || col >= this.clipRight) return false;
+
+        int c = this.getCodePoint(row, col);
+        if (c != WIDE_TAIL && !isSurrogate(c, Character.MIN_LOW_SURROGATE, Character.MAX_LOW_SURROGATE)) {
+            return false;
+        }
+
+        int previous = this.getCodePoint(row, col - 1);
+        return c == WIDE_TAIL
+            ? !isSurrogate(previous, Character.MIN_SURROGATE, Character.MAX_SURROGATE)
+                && DisplayWidth.codePointWidth(previous) == 2
+            : isSurrogate(previous, Character.MIN_HIGH_SURROGATE, Character.MAX_HIGH_SURROGATE);
+    }
+
+    /**
+     * Builds a list-of-rows copy of this buffer.
+     *
+     * <p>This exists for callers that still expect the old
+     * {@code List<List<Character>>} screen representation. It allocates one list
+     * per row and boxes every character, so it should not be used on a hot path.</p>
+     *
+     * @return a new list containing one list of characters per row
+     */
+    public List<List<Character>> toList() {
+        List<List<Character>> rows = new ArrayList<>(this.height);
+
+        for (int row = 0; row < this.height; row++) {
+            List<Character> cols = new ArrayList<>(this.width);
+
+            for (int col = 0; col < this.width; col++) {
+                cols.add(this.get(row, col));
+            }
+            rows.add(cols);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Appends the visible contents of this buffer to a StringBuilder, one line
+     * per row, each terminated by a newline character. The right halves of
+     * wide characters are left out.
+     *
+     * @param builder the builder to append to
+     */
+    public void appendTo(StringBuilder builder) {
+        for (int row = this.clipTop; row < this.clipBottom; row++) {
+            int rowOffset = this.offset + row * this.stride;
+
+            for (int col = this.clipLeft; col < this.clipRight; col++) {
+                int c = Cell.codePointOf(this.read(rowOffset + col));
+
+                if (c != WIDE_TAIL) {
+                    builder.appendCodePoint(c);
+                } else if (!this.isContinuation(row, col)) {
+                    builder.append(' ');
+                }
+            }
+            builder.append('\n');
+        }
+    }
+
+
+    private static boolean isSurrogate(int c, char min, char max) {
+        return c >= min && c <= max;
+    }
+
+
+    // STORAGE METHODS
+    /**
+     * Returns the number of array slots a row of the given width occupies.
+     *
+     * @param width the number of columns in a row
+     * @return the row stride to use for that width
+     */
+    protected int strideFor(int width) {
+        return width;
+    }
+
+    /**
+     * Makes sure the backing storage can hold at least {@code size} slots.
+     * Existing storage is kept when it is already large enough.
+     *
+     * @param size the number of slots needed
+     */
+    protected void allocate(int size) {
+        if (this.cells.length < size) {
+            this.cells = new long[size];
+        }
+    }
+
+    /**
+     * Reads the slot at an index of the backing storage.
+     *
+     * @param index the slot to read
+     * @return the cell stored in the slot
+     */
+    protected long read(int index) {
+        return this.cells[index];
+    }
+
+    /**
+     * Writes a cell into a slot of the backing storage.
+     *
+     * @param index the slot to write
+     * @param cell  the cell to store
+     */
+    protected void write(int index, long cell) {
+        this.cells[index] = cell;
+    }
+
+    /**
+     * Sets the slots {@code [from, to)} of the backing storage to a cell.
+     *
+     * @param from the first slot to fill (inclusive)
+     * @param to   the last slot to fill (exclusive)
+     * @param cell the cell to store
+     */
+    protected void fill(int from, int to, long cell) {
+        Arrays.fill(this.cells, from, to, cell);
+    }
+
+    /**
+     * Copies {@code length} characters of a text into consecutive slots of the
+     * backing storage, drawn with the current style.
+     *
+     * @param text   the text to copy from
+     * @param from   the first character of the text to copy
+     * @param to     the first slot of this buffer to write
+     * @param length the number of characters to copy
+     */
+    protected void copy(CharSequence text, int from, int to, int length) {
+        long style = (long) this.style << 32;
+
+        for (int i = 0; i < length; i++) {
+            this.cells[to + i] = style | text.charAt(from + i);
+        }
+    }
+
+    /**
+     * Copies {@code length} consecutive slots of another buffer's storage into
+     * this buffer's storage.
+     *
+     * @param source the buffer to copy from
+     * @param from   the first slot of the source to copy
+     * @param to     the first slot of this buffer to write
+     * @param length the number of slots to copy
+     */
+    protected void copy(FrameBuffer source, int from, int to, int length) {
+        if (source.cells != null) {
+            System.arraycopy(source.cells, from, this.cells, to, length);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            this.cells[to + i] = source.read(from + i);
+        }
+    }
+}
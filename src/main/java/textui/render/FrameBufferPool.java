@@ -0,0 +1,110 @@
+package textui.render;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recycles frame buffers between frames.
+ *
+ * <p>Buffers are grouped into size classes by the number of cells their
+ * backing array holds, rounded to a power of two. {@link #acquire(int, int)}
+ * hands out a buffer from the smallest class that fits, and
+ * {@link #release(FrameBuffer)} puts it back for the next frame. A renderer
+ * whose frames change size, for example when the terminal is resized back and
+ * forth, keeps reusing the same few arrays instead of allocating new ones.</p>
+ *
+ * <p>At most {@link #MAX_PER_CLASS} free buffers are kept in each class;
+ * buffers released beyond that are left to the garbage collector. A pool is
+ * not thread-safe.</p>
+ */
+public class FrameBufferPool {
+    /**
+     * The number of free buffers kept in each size class.
+     */
+    public static final int MAX_PER_CLASS = 4;
+
+    // free.get(k) holds buffers whose capacity is at least 2^k cells
+    private final List<ArrayDeque<FrameBuffer>> free = new ArrayList<>();
+    private long allocatedCells = 0;
+
+
+    // GETTERS
+    /**
+     * Returns the number of cells in all the arrays this pool has allocated.
+     * It stops growing once the pool holds enough buffers for every size in use.
+     *
+     * @return the total capacity allocated by this pool
+     */
+    public long getAllocatedCells() {
+        return this.allocatedCells;
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Returns a buffer of the given size with every cell set to a space and the
+     * default style.
+     *
+     * @param height the number of rows
+     * @param width  the number of columns
+     * @return a buffer from the pool, or a new one if the size class is empty
+     */
+    public FrameBuffer acquire(int height, int width) {
+        int cells = Math.max(0, height) * Math.max(0, width);
+        int sizeClass = ScratchArena.sizeClass(cells);
+
+        FrameBuffer buffer = sizeClass < this.free.size() ? this.free.get(sizeClass).poll() : null;
+        if (buffer == null) {
+            buffer = new FrameBuffer(new long[1 << sizeClass]);
+            this.allocatedCells += 1 << sizeClass;
+        }
+
+        buffer.setStyle(0);
+        buffer.reset(height, width, ' ');
+        return buffer;
+    }
+
+    /**
+     * Gives a buffer back to the pool. The caller must not use it afterwards.
+     *
+     * @param buffer a buffer returned by {@link #acquire(int, int)}, or null to do nothing
+     * @throws IllegalArgumentException if the buffer is a view or keeps its cells off the heap
+     */
+    public void release(FrameBuffer buffer) {
+        if (buffer == null) return;
+        if (buffer.isDirect() || buffer.isView()) {
+            throw new IllegalArgumentException("only heap buffers that are not views can be pooled");
+        }
+        if (buffer.capacity() == 0) return;
+
+        // Round down so every buffer in a class can hold any size mapped to it
+        int sizeClass = 31 - Integer.numberOfLeadingZeros(Math.max(1, buffer.capacity()));
+
+        while (this.free.size() <= sizeClass) {
+            this.free.add(new ArrayDeque<>());
+        }
+
+        ArrayDeque<FrameBuffer> buffers = this.free.get(sizeClass);
+        if (buffers.size() < MAX_PER_CLASS) buffers.push(buffer);
+    }
+
+    /**
+     * Returns a buffer of the given size, reusing {@code buffer} when it is
+     * large enough and swapping it for a pooled one otherwise.
+     *
+     * @param buffer the buffer currently in use, or null
+     * @param height the number of rows needed
+     * @param width  the number of columns needed
+     * @return a cleared buffer of the given size
+     */
+    public FrameBuffer resize(FrameBuffer buffer, int height, int width) {
+        if (buffer != null && buffer.capacity() >= Math.max(0, height) * Math.max(0, width)) {
+            buffer.reset(height, width, ' ');
+            return buffer;
+        }
+
+        this.release(buffer);
+        return this.acquire(height, width);
+    }
+}
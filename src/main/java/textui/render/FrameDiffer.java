@@ -0,0 +1,106 @@
+package textui.render;
+
+/**
+ * Turns successive frames into the ANSI output needed to update a terminal
+ * from one frame to the next.
+ *
+ * <p>The differ remembers the last frame it emitted. Each new frame is compared
+ * against it row by row, and only the runs of cells that changed are written,
+ * each preceded by a cursor-positioning sequence ({@code ESC [ row ; col H}).
+ * The amount of output therefore follows the amount of change rather than the
+ * size of the screen.</p>
+ *
+ * <p>The first frame, a frame whose size differs from the previous one, and any
+ * frame after {@link #invalidate()} are written in full after clearing the
+ * terminal.</p>
+ */
+public class FrameDiffer {
+    // Runs separated by fewer unchanged cells than this are merged, because
+    // rewriting the cells costs about as much as moving the cursor over them
+    private static final int MERGE_GAP = 8;
+
+    private final FrameBuffer previous = new FrameBuffer();
+    private volatile boolean valid = false;
+
+    /**
+     * Forgets the previously emitted frame so that the next frame is written in full.
+     * Use this when the terminal may have been modified by something else.
+     */
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * Encodes into {@code output} the ANSI text that turns the previously emitted
+     * frame into {@code frame}, and remembers {@code frame} for the next call.
+     * The cursor is left on the line below the frame.
+     *
+     * @param frame  the frame to emit
+     * @param output the writer receiving the terminal output
+     */
+    public void diff(FrameBuffer frame, FrameWriter output) {
+        int height = frame.getHeight();
+        int width = frame.getWidth();
+
+        if (!this.valid || this.previous.getHeight() != height || this.previous.getWidth() != width) {
+            this.repaint(frame, output);
+        } else {
+            for (int row = 0; row < height; row++) {
+                this.diffRow(frame, row, output);
+            }
+            this.previous.copyFrom(frame, 0, 0);
+        }
+
+        output.resetStyle();
+        output.moveCursor(height, 0);
+    }
+
+    private void repaint(FrameBuffer frame, FrameWriter output) {
+        int height = frame.getHeight();
+        int width = frame.getWidth();
+
+        output.clearScreen();
+
+        for (int row = 0; row < height; row++) {
+            output.moveCursor(row, 0);
+            output.writeRow(frame, row, 0, width);
+        }
+
+        this.previous.reset(height, width, ' ');
+        this.previous.copyFrom(frame, 0, 0);
+        this.valid = true;
+    }
+
+    private void diffRow(FrameBuffer frame, int row, FrameWriter output) {
+        int width = frame.getWidth();
+        int start = frame.mismatch(this.previous, row, 0);
+
+        while (start != -1) {
+            // Never start or end a run in the middle of a wide character
+            if (frame.isContinuation(row, start)) start--;
+            int end = this.endOfRun(frame, row, start);
+
+            // Grow the run until it is followed by enough unchanged cells
+            while (end < width) {
+                int next = frame.mismatch(this.previous, row, end);
+                if (next == -1 || next - end >= MERGE_GAP) break;
+
+                end = this.endOfRun(frame, row, next);
+            }
+
+            output.moveCursor(row, start);
+            output.writeRow(frame, row, start, end);
+
+            start = end < width ? frame.mismatch(this.previous, row, end) : -1;
+        }
+    }
+
+    private int endOfRun(FrameBuffer frame, int row, int start) {
+        int end = start + 1;
+        while (end < frame.getWidth()
+            && (frame.getCell(row, end) != this.previous.getCell(row, end) || frame.isContinuation(row, end))) {
+            end++;
+        }
+        return end;
+    }
+}
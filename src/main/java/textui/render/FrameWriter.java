@@ -0,0 +1,431 @@
+package textui.render;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes frames and terminal control sequences into a reusable byte buffer
+ * and writes them out in a single call.
+ *
+ * <p>Characters are encoded as UTF-8 directly from the frame buffer's cells.
+ * ASCII characters, which make up almost every frame, are copied one byte per
+ * cell without going through a {@link java.nio.charset.CharsetEncoder}. The
+ * buffer is kept between frames and only grows when a frame needs more room
+ * than any frame before it, so drawing the same screen repeatedly does not
+ * allocate.</p>
+ *
+ * <p>The writer keeps track of the style the terminal is drawing with and emits
+ * an SGR escape sequence ({@code ESC [ ... m}) only where a cell's style differs
+ * from the cell before it. The sequence only holds the parameters that change,
+ * each copied from a table of encoded parameters built once, and rows that
+ * only use the default style produce no escape sequences at all.</p>
+ */
+public class FrameWriter {
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    // The longest UTF-8 encoding of a single cell, a supplementary code point
+    static final int MAX_BYTES_PER_CELL = 4;
+
+    // SGR parameters, indexed by color + 1 or by attribute bit
+    private static final byte[][] FOREGROUND = colorParameters(30, 90, 38);
+    private static final byte[][] BACKGROUND = colorParameters(40, 100, 48);
+    private static final byte[][] ATTRIBUTES = parameters("1", "2", "3", "4", "7");
+    private static final byte[] RESET = parameters("0")[0];
+
+    // ESC [, a reset, five attributes, two 256-color parameters (";38;5;255"), and 'm'
+    private static final int MAX_SGR_BYTES = 2 + 2 + 5 * 2 + 2 * 10 + 1;
+
+    private ByteBuffer buffer;
+    private int style = 0;
+
+    /**
+     * Constructs a FrameWriter with a small initial buffer.
+     */
+    public FrameWriter() {
+        this(4096);
+    }
+
+    /**
+     * Constructs a FrameWriter with the given initial buffer capacity.
+     *
+     * @param capacity the initial number of bytes the buffer can hold
+     */
+    public FrameWriter(int capacity) {
+        this.buffer = ByteBuffer.allocate(Math.max(16, capacity));
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the number of bytes encoded since the last write.
+     *
+     * @return the number of pending bytes
+     */
+    public int size() {
+        return this.buffer.position();
+    }
+
+    /**
+     * Returns the number of bytes the buffer can hold before it has to grow.
+     *
+     * @return the current buffer capacity
+     */
+    public int capacity() {
+        return this.buffer.capacity();
+    }
+
+    /**
+     * Returns the most bytes {@link #writeFrame(FrameBuffer)} can encode a frame
+     * of the given size into when every cell uses the default style.
+     *
+     * @param height the number of rows in the frame
+     * @param width  the number of columns in the frame
+     * @return the encoded size of such a frame, at most
+     */
+    public static long maxUnstyledFrameBytes(int height, int width) {
+        return (long) height * ((long) width * MAX_BYTES_PER_CELL + 1);
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Encodes every row of a frame, each followed by a newline character.
+     *
+     * @param frame the frame to encode
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter writeFrame(FrameBuffer frame) {
+        for (int row = 0; row < frame.getHeight(); row++) {
+            this.writeRow(frame, row, 0, frame.getWidth());
+            // A colored background would otherwise spread onto new lines as the terminal scrolls
+            this.resetStyle();
+            this.writeAscii('\n');
+        }
+        return this;
+    }
+
+    /**
+     * Encodes the columns {@code [from, to)} of one row of a frame.
+     *
+     * @param frame the frame to read from
+     * @param row   the row to encode
+     * @param from  the first column to encode (inclusive)
+     * @param to    the last column to encode (exclusive)
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter writeRow(FrameBuffer frame, int row, int from, int to) {
+        int count = to - from;
+        this.ensureCapacity(count * MAX_BYTES_PER_CELL);
+
+        long[] cells = frame.cells();
+        if (cells == null) {
+            // Off-heap cells have no styles
+            this.writeCells(frame, row, from, to);
+            return this;
+        }
+
+        int rowStart = frame.index(row, 0);
+        int index = rowStart + from;
+        int end = index + count;
+
+        byte[] bytes = this.buffer.array();
+        int pos = this.buffer.position();
+
+        while (index < end) {
+            long cell = cells[index++];
+            int c = Cell.codePointOf(cell);
+
+            int cellStyle = Cell.styleOf(cell);
+            if (cellStyle != this.style) {
+                this.buffer.position(pos);
+                this.writeStyle(cellStyle);
+                this.ensureCapacity((end - index + 1) * MAX_BYTES_PER_CELL);
+
+                bytes = this.buffer.array();
+                pos = this.buffer.position();
+            }
+
+            if (c == FrameBuffer.WIDE_TAIL) {
+                // The terminal already filled this column with the wide character
+                if (!frame.isContinuation(row, index - 1 - rowStart)) bytes[pos++] = ' ';
+            }
+
+            else if (c < 0x80) {
+                bytes[pos++] = (byte) c;
+            }
+
+            else if (c < 0x800) {
+                bytes[pos++] = (byte) (0xC0 | (c >> 6));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+
+            else if (c >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                pos = putSupplementary(bytes, pos, c);
+            }
+
+            else if (Character.isHighSurrogate((char) c) && index < end
+                && Character.isLowSurrogate(Cell.charOf(cells[index]))) {
+                // A surrogate pair written one char per cell
+                pos = putSupplementary(bytes, pos, Character.toCodePoint((char) c, Cell.charOf(cells[index++])));
+            }
+
+            else if (Character.isSurrogate((char) c)) {
+                // An unpaired surrogate cannot be encoded
+                bytes[pos++] = '?';
+            }
+
+            else {
+                bytes[pos++] = (byte) (0xE0 | (c >> 12));
+                bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        this.buffer.position(pos);
+        return this;
+    }
+
+    /**
+     * Encodes the SGR sequence that makes the terminal draw with a style, unless
+     * it already does. Only the parameters that differ from the current style
+     * are written; when an attribute has to be turned off, the sequence starts
+     * with a reset instead.
+     *
+     * @param style the packed style, as returned by {@link Style#pack()}
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter writeStyle(int style) {
+        int current = this.style;
+        if (style == current) return this;
+
+        this.ensureCapacity(MAX_SGR_BYTES);
+        this.buffer.put((byte) '\u001b').put((byte) '[');
+
+        boolean first = true;
+        if (style == 0 || (Style.attributesOf(current) & ~Style.attributesOf(style)) != 0) {
+            this.buffer.put(RESET);
+            current = 0;
+            first = false;
+        }
+
+        int added = Style.attributesOf(style) & ~Style.attributesOf(current);
+        for (int bit = 0; added >> bit != 0; bit++) {
+            if ((added >> bit & 1) == 0) continue;
+
+            if (!first) this.buffer.put((byte) ';');
+            this.buffer.put(ATTRIBUTES[bit]);
+            first = false;
+        }
+
+        if (Style.foregroundOf(style) != Style.foregroundOf(current)) {
+            if (!first) this.buffer.put((byte) ';');
+            this.buffer.put(FOREGROUND[Style.foregroundOf(style) + 1]);
+            first = false;
+        }
+
+        if (Style.backgroundOf(style) != Style.backgroundOf(current)) {
+            if (!first) this.buffer.put((byte) ';');
+            this.buffer.put(BACKGROUND[Style.backgroundOf(style) + 1]);
+        }
+
+        this.buffer.put((byte) 'm');
+        this.style = style;
+        return this;
+    }
+
+    /**
+     * Encodes the SGR sequence that returns the terminal to its default style,
+     * unless it already uses it.
+     *
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter resetStyle() {
+        return this.writeStyle(0);
+    }
+
+    /**
+     * Encodes a single ASCII character.
+     *
+     * @param c the character to encode; must be below 0x80
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter writeAscii(char c) {
+        this.ensureCapacity(1);
+        this.buffer.put((byte) c);
+        return this;
+    }
+
+    /**
+     * Encodes the platform line separator.
+     *
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter writeLineSeparator() {
+        this.ensureCapacity(LINE_SEPARATOR.length);
+        this.buffer.put(LINE_SEPARATOR);
+        return this;
+    }
+
+    /**
+     * Encodes a non-negative integer in decimal without allocating.
+     *
+     * @param value the number to encode
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter writeNumber(int value) {
+        this.ensureCapacity(10);
+
+        int divisor = 1;
+        while (value / divisor >= 10) divisor *= 10;
+
+        for (; divisor > 0; divisor /= 10) {
+            this.buffer.put((byte) ('0' + (value / divisor) % 10));
+        }
+        return this;
+    }
+
+    /**
+     * Encodes the ANSI sequence that moves the cursor to a cell.
+     *
+     * @param row the zero-based row to move to
+     * @param col the zero-based column to move to
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter moveCursor(int row, int col) {
+        this.writeAscii('\u001b').writeAscii('[');
+        this.writeNumber(row + 1).writeAscii(';').writeNumber(col + 1);
+        return this.writeAscii('H');
+    }
+
+    /**
+     * Encodes the ANSI sequence that clears the whole terminal.
+     *
+     * @return this FrameWriter for chaining
+     */
+    public FrameWriter clearScreen() {
+        // Clearing fills the screen with the current background color
+        this.resetStyle();
+        return this.writeAscii('\u001b').writeAscii('[').writeAscii('2').writeAscii('J');
+    }
+
+    /**
+     * Writes every pending byte to a stream with a single call, then empties
+     * the buffer.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(this.buffer.array(), 0, this.buffer.position());
+        out.flush();
+        this.buffer.clear();
+    }
+
+    /**
+     * Writes every pending byte to a channel, then empties the buffer.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if the channel fails
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    private void writeCells(FrameBuffer frame, int row, int from, int to) {
+        this.resetStyle();
+        this.ensureCapacity((to - from) * MAX_BYTES_PER_CELL);
+
+        for (int col = from; col < to; col++) {
+            col = putCell(this.buffer, frame, row, col, to);
+        }
+    }
+
+    // Encodes the cell at (row, col) as UTF-8 and returns the last column it
+    // used, which is col + 1 for a surrogate pair written one char per cell.
+    // A continuation produces no bytes, and a stray WIDE_TAIL becomes a space.
+    static int putCell(ByteBuffer out, FrameBuffer frame, int row, int col, int to) {
+        int c = frame.getCodePoint(row, col);
+
+        if (c == FrameBuffer.WIDE_TAIL) {
+            if (!frame.isContinuation(row, col)) out.put((byte) ' ');
+        } else if (c < 0x80) {
+            out.put((byte) c);
+        } else if (c < 0x800) {
+            out.put((byte) (0xC0 | (c >> 6)));
+            out.put((byte) (0x80 | (c & 0x3F)));
+        } else if (c >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            putFourBytes(out, c);
+        } else if (Character.isHighSurrogate((char) c) && col + 1 < to
+            && Character.isLowSurrogate(frame.get(row, col + 1))) {
+            putFourBytes(out, Character.toCodePoint((char) c, frame.get(row, ++col)));
+        } else if (Character.isSurrogate((char) c)) {
+            out.put((byte) '?');
+        } else {
+            out.put((byte) (0xE0 | (c >> 12)));
+            out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            out.put((byte) (0x80 | (c & 0x3F)));
+        }
+
+        return col;
+    }
+
+    private static void putFourBytes(ByteBuffer out, int codePoint) {
+        out.put((byte) (0xF0 | (codePoint >> 18)));
+        out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        out.put((byte) (0x80 | (codePoint & 0x3F)));
+    }
+
+    private static int putSupplementary(byte[] bytes, int pos, int codePoint) {
+        bytes[pos++] = (byte) (0xF0 | (codePoint >> 18));
+        bytes[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        bytes[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        bytes[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+        return pos;
+    }
+
+    private static byte[][] colorParameters(int standard, int bright, int extended) {
+        byte[][] parameters = new byte[257][];
+        parameters[0] = parameters(String.valueOf(standard + 9))[0];
+
+        for (int color = 0; color < 256; color++) {
+            String parameter;
+            if (color < 8) {
+                parameter = String.valueOf(standard + color);
+            } else if (color < 16) {
+                parameter = String.valueOf(bright + color - 8);
+            } else {
+                parameter = extended + ";5;" + color;
+            }
+            parameters[color + 1] = parameter.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        return parameters;
+    }
+
+    private static byte[][] parameters(String... values) {
+        byte[][] parameters = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            parameters[i] = values[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return parameters;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (this.buffer.remaining() >= extra) return;
+
+        int capacity = Math.max(this.buffer.capacity() * 2, this.buffer.position() + extra);
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+
+        this.buffer.flip();
+        larger.put(this.buffer);
+        this.buffer = larger;
+    }
+}
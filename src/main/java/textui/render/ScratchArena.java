@@ -0,0 +1,187 @@
+package textui.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Temporary objects for one frame, reused from frame to frame.
+ *
+ * <p>Painting a frame takes a region view for every element it visits, and
+ * laying it out needs a few short-lived arrays and lists. None of them outlive
+ * the frame, so instead of allocating them each time, a renderer opens an arena
+ * on its thread before the frame and closes it afterwards. Everything handed
+ * out while the arena is open is valid until the next {@link #open()}, which
+ * takes all of it back at once. In the steady state a frame therefore
+ * allocates nothing here.</p>
+ *
+ * <p>An arena belongs to the thread that opened it. Code that may run on other
+ * threads, such as parallel paint tasks, sees no arena in
+ * {@link #current()} and allocates as usual.</p>
+ */
+public final class ScratchArena {
+    private static final ThreadLocal<ScratchArena> CURRENT = new ThreadLocal<>();
+
+    // Views handed out this frame are views[0, usedViews)
+    private final List<FrameBuffer> views = new ArrayList<>();
+    private int usedViews = 0;
+
+    // Lists handed out this frame are lists[0, usedLists)
+    private final List<List<Object>> lists = new ArrayList<>();
+    private int usedLists = 0;
+
+    // One list of arrays per power-of-two length; ints[k][0, usedInts[k]) are in use
+    private final List<List<int[]>> ints = new ArrayList<>();
+    private int[] usedInts = new int[0];
+
+    /**
+     * Returns the arena opened on the calling thread.
+     *
+     * @return the open arena, or null if none is open on this thread
+     */
+    public static ScratchArena current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Takes back everything handed out since the last call and makes this the
+     * arena of the calling thread.
+     */
+    public void open() {
+        this.usedViews = 0;
+        this.usedLists = 0;
+        Arrays.fill(this.usedInts, 0);
+        CURRENT.set(this);
+    }
+
+    /**
+     * Detaches this arena from the calling thread. What it handed out stays
+     * valid until it is opened again.
+     */
+    public void close() {
+        if (CURRENT.get() == this) CURRENT.remove();
+    }
+
+    /**
+     * Returns a view of a region of {@code parent}, like
+     * {@link FrameBuffer#region(int, int, int, int)}, but reusing a view
+     * object from an earlier frame when there is one. Buffers that keep their
+     * cells off the heap return their own kind of view.
+     *
+     * @param parent the buffer to take the view from
+     * @param top    the row of the parent where the region starts
+     * @param left   the column of the parent where the region starts
+     * @param height the number of rows in the region
+     * @param width  the number of columns in the region
+     * @return a view sharing the parent's cells, valid until the arena is opened again
+     */
+    public FrameBuffer region(FrameBuffer parent, int top, int left, int height, int width) {
+        if (parent.isDirect()) return parent.region(top, left, height, width);
+
+        if (this.usedViews == this.views.size()) {
+            FrameBuffer view = parent.region(top, left, height, width);
+            this.views.add(view);
+            this.usedViews++;
+            return view;
+        }
+
+        FrameBuffer view = this.views.get(this.usedViews++);
+        view.aim(parent, top, left, height, width);
+        return view;
+    }
+
+    /**
+     * Returns an array of at least {@code length} zeros. Arrays come in
+     * power-of-two lengths, so callers must not rely on {@code array.length}.
+     *
+     * @param length the number of elements needed
+     * @return a zeroed array, valid until the arena is opened again
+     */
+    public int[] ints(int length) {
+        int sizeClass = sizeClass(length);
+
+        if (sizeClass >= this.usedInts.length) {
+            this.usedInts = Arrays.copyOf(this.usedInts, sizeClass + 1);
+        }
+        while (this.ints.size() <= sizeClass) {
+            this.ints.add(new ArrayList<>());
+        }
+
+        List<int[]> arrays = this.ints.get(sizeClass);
+        int used = this.usedInts[sizeClass]++;
+
+        if (used == arrays.size()) {
+            int[] array = new int[1 << sizeClass];
+            arrays.add(array);
+            return array;
+        }
+
+        int[] array = arrays.get(used);
+        Arrays.fill(array, 0, length, 0);
+        return array;
+    }
+
+    /**
+     * Returns an empty list for collecting results that are copied elsewhere
+     * before the frame ends.
+     *
+     * @param <T> the type of the elements
+     * @return an empty list, valid until the arena is opened again
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> list() {
+        if (this.usedLists == this.lists.size()) {
+            this.lists.add(new ArrayList<>());
+        }
+
+        List<Object> list = this.lists.get(this.usedLists++);
+        list.clear();
+        return (List<T>) list;
+    }
+
+    /**
+     * Returns an empty list from the arena open on the calling thread, or a new
+     * list with room for {@code capacity} elements if there is none.
+     *
+     * @param <T>      the type of the elements
+     * @param capacity the number of elements expected
+     * @return an empty list, valid until the current frame ends
+     */
+    public static <T> List<T> scratchList(int capacity) {
+        ScratchArena arena = CURRENT.get();
+        return arena != null ? arena.list() : new ArrayList<>(capacity);
+    }
+
+    /**
+     * Returns an array of at least {@code length} zeros from the arena open on
+     * the calling thread, or a new array if there is none.
+     *
+     * @param length the number of elements needed
+     * @return a zeroed array, valid until the current frame ends
+     */
+    public static int[] scratchInts(int length) {
+        ScratchArena arena = CURRENT.get();
+        return arena != null ? arena.ints(length) : new int[length];
+    }
+
+    /**
+     * Returns a view of a region of {@code parent} from the arena open on the
+     * calling thread, or a new view if there is none.
+     *
+     * @param parent the buffer to take the view from
+     * @param top    the row of the parent where the region starts
+     * @param left   the column of the parent where the region starts
+     * @param height the number of rows in the region
+     * @param width  the number of columns in the region
+     * @return a view sharing the parent's cells, valid until the current frame ends
+     */
+    public static FrameBuffer scratchRegion(FrameBuffer parent, int top, int left, int height, int width) {
+        ScratchArena arena = CURRENT.get();
+        return arena != null ? arena.region(parent, top, left, height, width) : parent.region(top, left, height, width);
+    }
+
+    // The smallest k with 2^k >= length
+    static int sizeClass(int length) {
+        return length <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(length - 1);
+    }
+}
@@ -0,0 +1,137 @@
+package textui.render;
+
+/**
+ * The colors and attributes a cell is drawn with.
+ *
+ * <p>Colors are indices into the terminal's 256-color palette, where 0 to 7 are
+ * the standard colors and 8 to 15 their bright variants, or
+ * {@link #DEFAULT_COLOR} for the terminal's own color. Attributes are a bit set
+ * of {@link #BOLD}, {@link #DIM}, {@link #ITALIC}, {@link #UNDERLINE} and
+ * {@link #REVERSE}.</p>
+ *
+ * <p>A style is stored in a frame buffer cell as the {@code int} returned by
+ * {@link #pack()}; see {@link Cell}. The default style packs to 0, so a cell
+ * holding a plain character is just that character.</p>
+ *
+ * @param foreground the palette index of the text color, or {@link #DEFAULT_COLOR}
+ * @param background the palette index of the background color, or {@link #DEFAULT_COLOR}
+ * @param attributes the attribute bits that are set
+ */
+public record Style(int foreground, int background, int attributes) {
+    /**
+     * The terminal's own foreground or background color.
+     */
+    public static final int DEFAULT_COLOR = -1;
+
+    // The standard palette colors
+    public static final int BLACK = 0;
+    public static final int RED = 1;
+    public static final int GREEN = 2;
+    public static final int YELLOW = 3;
+    public static final int BLUE = 4;
+    public static final int MAGENTA = 5;
+    public static final int CYAN = 6;
+    public static final int WHITE = 7;
+
+    /**
+     * Added to a standard color to get its bright variant.
+     */
+    public static final int BRIGHT = 8;
+
+    // Attribute bits
+    public static final int BOLD = 1;
+    public static final int DIM = 1 << 1;
+    public static final int ITALIC = 1 << 2;
+    public static final int UNDERLINE = 1 << 3;
+    public static final int REVERSE = 1 << 4;
+
+    /**
+     * The terminal's default colors with no attributes.
+     */
+    public static final Style DEFAULT = new Style(DEFAULT_COLOR, DEFAULT_COLOR, 0);
+
+    // Packed layout: foreground + 1 in bits 0-8, background + 1 in bits 9-17,
+    // attributes in bits 18-22
+    static final int COLOR_BITS = 9;
+    static final int COLOR_MASK = (1 << COLOR_BITS) - 1;
+    static final int ATTRIBUTE_SHIFT = 2 * COLOR_BITS;
+    static final int ATTRIBUTE_MASK = 0x1F;
+
+    /**
+     * Constructs a Style, checking that its colors and attributes are valid.
+     *
+     * @throws IllegalArgumentException if a color is not a palette index or
+     *         {@link #DEFAULT_COLOR}, or an unknown attribute bit is set
+     */
+    public Style {
+        if (foreground < DEFAULT_COLOR || foreground > 255 || background < DEFAULT_COLOR || background > 255) {
+            throw new IllegalArgumentException("colors must be palette indices from 0 to 255 or DEFAULT_COLOR");
+        }
+        if ((attributes & ~ATTRIBUTE_MASK) != 0) {
+            throw new IllegalArgumentException("unknown attribute bits: " + attributes);
+        }
+    }
+
+    /**
+     * Returns a copy of this style with another text color.
+     *
+     * @param foreground the palette index of the text color, or {@link #DEFAULT_COLOR}
+     * @return the new style
+     */
+    public Style withForeground(int foreground) {
+        return new Style(foreground, this.background, this.attributes);
+    }
+
+    /**
+     * Returns a copy of this style with another background color.
+     *
+     * @param background the palette index of the background color, or {@link #DEFAULT_COLOR}
+     * @return the new style
+     */
+    public Style withBackground(int background) {
+        return new Style(this.foreground, background, this.attributes);
+    }
+
+    /**
+     * Returns a copy of this style with additional attributes set.
+     *
+     * @param attributes the attribute bits to set, such as {@code BOLD | UNDERLINE}
+     * @return the new style
+     */
+    public Style with(int attributes) {
+        return new Style(this.foreground, this.background, this.attributes | attributes);
+    }
+
+    /**
+     * Packs this style into the bits stored in a cell.
+     *
+     * @return the packed style; 0 for {@link #DEFAULT}
+     */
+    public int pack() {
+        return (this.foreground + 1)
+            | (this.background + 1) << COLOR_BITS
+            | this.attributes << ATTRIBUTE_SHIFT;
+    }
+
+    /**
+     * Rebuilds a style from its packed form.
+     *
+     * @param packed the bits returned by {@link #pack()}
+     * @return the style they describe
+     */
+    public static Style unpack(int packed) {
+        return new Style(foregroundOf(packed), backgroundOf(packed), attributesOf(packed));
+    }
+
+    static int foregroundOf(int packed) {
+        return (packed & COLOR_MASK) - 1;
+    }
+
+    static int backgroundOf(int packed) {
+        return ((packed >>> COLOR_BITS) & COLOR_MASK) - 1;
+    }
+
+    static int attributesOf(int packed) {
+        return (packed >>> ATTRIBUTE_SHIFT) & ATTRIBUTE_MASK;
+    }
+}
@@ -0,0 +1,88 @@
+package textui.session;
+
+import textui.TextUI;
+import textui.element.Element;
+
+/**
+ * A headless UI owned by a {@link SessionManager}: an element tree together with
+ * the sink its frames are written to.
+ *
+ * <p>Sessions are created with {@link SessionManager#openSession}. Changes to the
+ * tree should go through {@link #update(Runnable)} so that they never overlap
+ * with a render of the same session.</p>
+ */
+public class Session {
+    private final SessionManager manager;
+    private final Element body;
+    private final TextUI ui;
+
+    // Bytes of frame buffer reserved for this session in the manager's budget
+    private long reservedBytes = 0;
+    private volatile boolean closed = false;
+
+    Session(SessionManager manager, Element body, TextUI ui) {
+        this.manager = manager;
+        this.body = body;
+        this.ui = ui;
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the root element of this session.
+     *
+     * @return the element tree rendered by this session
+     */
+    public Element getBody() {
+        return this.body;
+    }
+
+    /**
+     * Returns whether this session has been closed.
+     *
+     * @return true if the session no longer renders
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Runs a change to this session's element tree. The change never runs at
+     * the same time as a render of this session.
+     *
+     * @param change the code that modifies the session's elements
+     */
+    public void update(Runnable change) {
+        this.ui.update(change);
+    }
+
+    /**
+     * Closes this session and releases its share of the manager's buffer budget.
+     */
+    public void close() {
+        this.manager.closeSession(this);
+    }
+
+    // Called by SessionManager on a render thread
+    void render() {
+        this.ui.draw();
+    }
+
+    long getBufferBytes() {
+        return this.ui.getBufferBytes();
+    }
+
+    long getReservedBytes() {
+        return this.reservedBytes;
+    }
+
+    void setReservedBytes(long reservedBytes) {
+        this.reservedBytes = reservedBytes;
+    }
+
+    void markClosed() {
+        this.closed = true;
+    }
+}
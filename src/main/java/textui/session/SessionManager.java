@@ -0,0 +1,211 @@
+package textui.session;
+
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import textui.TextUI;
+import textui.element.Element;
+import textui.exception.BufferBudgetExceededException;
+
+/**
+ * Renders many headless {@link Session}s, for example one per connected user
+ * on a server.
+ *
+ * <p>Every render runs on its own virtual thread, so thousands of sessions can
+ * render without a platform thread each. The manager enforces two limits:</p>
+ * <ul>
+ *   <li>at most {@code maxConcurrentRenders} renders rasterize at the same time;
+ *       further renders wait for a permit, which only parks their virtual thread</li>
+ *   <li>the frame buffers of all open sessions together may not exceed
+ *       {@code maxBufferBytes}; a render that would exceed it fails with a
+ *       {@link BufferBudgetExceededException}</li>
+ * </ul>
+ *
+ * <p>A session's share of the budget is what its {@link TextUI} reports through
+ * {@link TextUI#getBufferBytes()}: eight bytes for every cell of each frame
+ * buffer and cache boundary the session keeps, plus its encoded output. The
+ * share is updated before every render.</p>
+ */
+public class SessionManager implements AutoCloseable {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore renderPermits;
+    private final long maxBufferBytes;
+    private final AtomicLong reservedBufferBytes = new AtomicLong();
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a SessionManager with the given limits.
+     *
+     * @param maxConcurrentRenders the number of renders allowed to run at once
+     * @param maxBufferBytes       the total frame buffer memory allowed across sessions
+     * @throws IllegalArgumentException if either limit is not positive
+     */
+    public SessionManager(int maxConcurrentRenders, long maxBufferBytes) {
+        if (maxConcurrentRenders <= 0 || maxBufferBytes <= 0) {
+            throw new IllegalArgumentException("session limits must be positive");
+        }
+
+        this.renderPermits = new Semaphore(maxConcurrentRenders);
+        this.maxBufferBytes = maxBufferBytes;
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return the number of sessions that have not been closed
+     */
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Returns the frame buffer memory currently reserved by all sessions.
+     *
+     * @return the reserved memory in bytes
+     */
+    public long getReservedBufferBytes() {
+        return this.reservedBufferBytes.get();
+    }
+
+    /**
+     * Returns the total frame buffer memory allowed across sessions.
+     *
+     * @return the buffer budget in bytes
+     */
+    public long getMaxBufferBytes() {
+        return this.maxBufferBytes;
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Opens a session that renders {@code body} to a stream.
+     *
+     * @param body the root element of the session
+     * @param sink the stream the session's frames are written to
+     * @return the new session
+     */
+    public Session openSession(Element body, OutputStream sink) {
+        return this.register(new Session(this, body, new TextUI(body, sink)));
+    }
+
+    /**
+     * Opens a session that renders {@code body} to a channel.
+     *
+     * @param body the root element of the session
+     * @param sink the channel the session's frames are written to
+     * @return the new session
+     */
+    public Session openSession(Element body, WritableByteChannel sink) {
+        return this.register(new Session(this, body, new TextUI(body, sink)));
+    }
+
+    /**
+     * Closes a session and releases its share of the buffer budget.
+     * Closing a session twice has no effect.
+     *
+     * @param session the session to close
+     */
+    public void closeSession(Session session) {
+        if (!this.sessions.remove(session)) return;
+
+        synchronized (session) {
+            session.markClosed();
+            this.reservedBufferBytes.addAndGet(-session.getReservedBytes());
+            session.setReservedBytes(0);
+        }
+    }
+
+    /**
+     * Renders a session on a new virtual thread.
+     *
+     * @param session the session to render
+     * @return a future that completes when the frame has been written, or fails
+     *         with {@link BufferBudgetExceededException} if the budget is exhausted
+     */
+    public CompletableFuture<Void> render(Session session) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        this.executor.execute(() -> {
+            try {
+                this.renderPermits.acquire();
+                try {
+                    this.renderNow(session);
+                } finally {
+                    this.renderPermits.release();
+                }
+                result.complete(null);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Renders every open session, each on its own virtual thread.
+     *
+     * @return a future that completes when every session has been rendered
+     */
+    public CompletableFuture<Void> renderAll() {
+        List<CompletableFuture<Void>> renders = this.sessions.stream().map(this::render).toList();
+        return CompletableFuture.allOf(renders.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Closes every session and stops accepting renders. Renders that are
+     * already running are allowed to finish.
+     */
+    @Override
+    public void close() {
+        for (Session session : this.sessions) {
+            this.closeSession(session);
+        }
+        this.executor.shutdown();
+    }
+
+    private Session register(Session session) {
+        this.sessions.add(session);
+        return session;
+    }
+
+    private void renderNow(Session session) throws BufferBudgetExceededException {
+        // Measured outside the session's monitor, since it waits for the tree lock
+        long needed = session.getBufferBytes();
+
+        synchronized (session) {
+            if (session.isClosed()) return;
+            this.reserve(session, needed);
+        }
+
+        session.render();
+    }
+
+    private void reserve(Session session, long needed) throws BufferBudgetExceededException {
+        long delta = needed - session.getReservedBytes();
+
+        while (true) {
+            long current = this.reservedBufferBytes.get();
+            if (delta > 0 && current + delta > this.maxBufferBytes) {
+                throw new BufferBudgetExceededException(
+                    "rendering needs " + needed + " bytes but only "
+                    + (this.maxBufferBytes - current + session.getReservedBytes()) + " are available");
+            }
+
+            if (this.reservedBufferBytes.compareAndSet(current, current + delta)) break;
+        }
+
+        session.setReservedBytes(needed);
+    }
+}
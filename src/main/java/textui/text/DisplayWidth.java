@@ -0,0 +1,324 @@
+package textui.text;
+
+import java.text.Normalizer;
+
+/**
+ * Measures how many terminal columns text takes up.
+ *
+ * <p>Most characters take one column, but East Asian wide and fullwidth
+ * characters (CJK ideographs, Hangul, kana, most emoji) take two, and
+ * combining marks, joiners and other format characters take none. Text is
+ * measured one grapheme cluster at a time, so a letter followed by combining
+ * accents, a flag made of two regional indicators or an emoji joined to others
+ * with zero-width joiners each count as a single character on screen.</p>
+ *
+ * <p>The width of every character in the Basic Multilingual Plane is
+ * precomputed into a table of two bits per character; supplementary characters
+ * are looked up in a short sorted list of wide ranges. Printable ASCII, which
+ * makes up almost all text, never reaches either: a run of it is measured with
+ * a single comparison per character and its width is its length.</p>
+ */
+public final class DisplayWidth {
+    private static final int ZERO_WIDTH_JOINER = 0x200D;
+    private static final int VARIATION_SELECTOR_16 = 0xFE0F;
+
+    // East Asian Wide and Fullwidth ranges outside the BMP, as inclusive pairs
+    private static final int[] WIDE_SUPPLEMENTARY = {
+        0x16FE0, 0x16FE4, 0x16FF0, 0x16FF1, 0x17000, 0x18CD5, 0x18D00, 0x18D08,
+        0x1AFF0, 0x1B2FB, 0x1F004, 0x1F004, 0x1F0CF, 0x1F0CF, 0x1F18E, 0x1F18E,
+        0x1F191, 0x1F19A, 0x1F200, 0x1F202, 0x1F210, 0x1F23B, 0x1F240, 0x1F248,
+        0x1F250, 0x1F251, 0x1F260, 0x1F265, 0x1F300, 0x1F320, 0x1F32D, 0x1F335,
+        0x1F337, 0x1F37C, 0x1F37E, 0x1F393, 0x1F3A0, 0x1F3CA, 0x1F3CF, 0x1F3D3,
+        0x1F3E0, 0x1F3F0, 0x1F3F4, 0x1F3F4, 0x1F3F8, 0x1F43E, 0x1F440, 0x1F440,
+        0x1F442, 0x1F4FC, 0x1F4FF, 0x1F53D, 0x1F54B, 0x1F54E, 0x1F550, 0x1F567,
+        0x1F57A, 0x1F57A, 0x1F595, 0x1F596, 0x1F5A4, 0x1F5A4, 0x1F5FB, 0x1F64F,
+        0x1F680, 0x1F6C5, 0x1F6CC, 0x1F6CC, 0x1F6D0, 0x1F6D2, 0x1F6D5, 0x1F6D7,
+        0x1F6DC, 0x1F6DF, 0x1F6EB, 0x1F6EC, 0x1F6F4, 0x1F6FC, 0x1F7E0, 0x1F7EB,
+        0x1F7F0, 0x1F7F0, 0x1F90C, 0x1F93A, 0x1F93C, 0x1F945, 0x1F947, 0x1F9FF,
+        0x1FA70, 0x1FA7C, 0x1FA80, 0x1FA88, 0x1FA90, 0x1FABD, 0x1FABF, 0x1FAC5,
+        0x1FACE, 0x1FADB, 0x1FAE0, 0x1FAE8, 0x1FAF0, 0x1FAF8, 0x20000, 0x2FFFD,
+        0x30000, 0x3FFFD
+    };
+
+    // East Asian Wide and Fullwidth ranges inside the BMP, as inclusive pairs
+    private static final int[] WIDE_BMP = {
+        0x1100, 0x115F, 0x231A, 0x231B, 0x2329, 0x232A, 0x23E9, 0x23EC,
+        0x23F0, 0x23F0, 0x23F3, 0x23F3, 0x25FD, 0x25FE, 0x2614, 0x2615,
+        0x2648, 0x2653, 0x267F, 0x267F, 0x2693, 0x2693, 0x26A1, 0x26A1,
+        0x26AA, 0x26AB, 0x26BD, 0x26BE, 0x26C4, 0x26C5, 0x26CE, 0x26CE,
+        0x26D4, 0x26D4, 0x26EA, 0x26EA, 0x26F2, 0x26F3, 0x26F5, 0x26F5,
+        0x26FA, 0x26FA, 0x26FD, 0x26FD, 0x2705, 0x2705, 0x270A, 0x270B,
+        0x2728, 0x2728, 0x274C, 0x274C, 0x274E, 0x274E, 0x2753, 0x2755,
+        0x2757, 0x2757, 0x2795, 0x2797, 0x27B0, 0x27B0, 0x27BF, 0x27BF,
+        0x2B1B, 0x2B1C, 0x2B50, 0x2B50, 0x2B55, 0x2B55, 0x2E80, 0x303E,
+        0x3041, 0x33FF, 0x3400, 0x4DBF, 0x4E00, 0xA4CF, 0xA960, 0xA97F,
+        0xAC00, 0xD7A3, 0xF900, 0xFAFF, 0xFE10, 0xFE19, 0xFE30, 0xFE6F,
+        0xFF00, 0xFF60, 0xFFE0, 0xFFE6
+    };
+
+    // The width of every BMP character, packed four to a byte
+    private static final byte[] BMP_WIDTHS = new byte[0x10000 / 4];
+
+    static {
+        for (int i = 0; i < WIDE_BMP.length; i += 2) {
+            for (int c = WIDE_BMP[i]; c <= WIDE_BMP[i + 1]; c++) {
+                setBmpWidth(c, 2);
+            }
+        }
+
+        for (int c = 0; c < 0x10000; c++) {
+            if (isZeroWidth(c)) {
+                setBmpWidth(c, 0);
+            } else if (bmpWidth(c) == 0) {
+                setBmpWidth(c, 1);
+            }
+        }
+    }
+
+    private DisplayWidth() {
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Returns the number of columns a text takes up.
+     *
+     * @param text the text to measure
+     * @return the display width of the text
+     */
+    public static int of(CharSequence text) {
+        return of(text, 0, text.length());
+    }
+
+    /**
+     * Returns the number of columns the characters {@code [start, end)} of a
+     * text take up.
+     *
+     * @param text  the text to measure
+     * @param start the offset of the first character to measure
+     * @param end   the offset just past the last character to measure
+     * @return the display width of the range
+     */
+    public static int of(CharSequence text, int start, int end) {
+        int i = asciiEnd(text, start, end);
+        if (i == end) return end - start;
+
+        int width = i - start;
+        while (i < end) {
+            int next = nextCluster(text, i, end);
+            width += clusterWidth(text, i, next);
+
+            // Go back to the fast path for the ASCII that follows; a combining
+            // mark after it still measures as zero on its own
+            i = asciiEnd(text, next, end);
+            width += i - next;
+        }
+        return width;
+    }
+
+    /**
+     * Returns the offset just past the longest run of printable ASCII
+     * characters starting at {@code start}. Every character of the run is one
+     * column wide and forms a cluster of its own.
+     *
+     * @param text  the text to scan
+     * @param start the offset to start at
+     * @param end   the offset to stop scanning at
+     * @return the offset of the first character that is not printable ASCII, or {@code end}
+     */
+    public static int asciiEnd(CharSequence text, int start, int end) {
+        int i = start;
+        // One unsigned comparison covers ' ' (0x20) up to '~' (0x7E)
+        while (i < end && (char) (text.charAt(i) - 0x20) < 0x5F) i++;
+        return i;
+    }
+
+    /**
+     * Returns the offset just past the grapheme cluster starting at {@code start}.
+     *
+     * <p>A cluster is a character followed by any combining marks, variation
+     * selectors and emoji modifiers, with characters joined to it by zero-width
+     * joiners, or a pair of regional indicators forming a flag.</p>
+     *
+     * @param text  the text to scan
+     * @param start the offset of the cluster's first character
+     * @param end   the offset to stop scanning at
+     * @return the offset of the next cluster, or {@code end}
+     */
+    public static int nextCluster(CharSequence text, int start, int end) {
+        int first = codePointAt(text, start, end);
+        int i = start + Character.charCount(first);
+
+        if (isRegionalIndicator(first) && i < end) {
+            int second = codePointAt(text, i, end);
+            if (isRegionalIndicator(second)) return i + Character.charCount(second);
+        }
+
+        while (i < end) {
+            int c = codePointAt(text, i, end);
+
+            if (c == ZERO_WIDTH_JOINER) {
+                i += 1;
+                if (i < end) i += Character.charCount(codePointAt(text, i, end));
+            } else if (isExtender(c)) {
+                i += Character.charCount(c);
+            } else {
+                break;
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Returns the number of columns one grapheme cluster takes up: the width of
+     * its first character, or two if it is an emoji sequence or flag.
+     *
+     * @param text  the text holding the cluster
+     * @param start the offset of the cluster's first character
+     * @param end   the offset just past the cluster, as returned by {@link #nextCluster}
+     * @return the display width of the cluster
+     */
+    public static int clusterWidth(CharSequence text, int start, int end) {
+        int first = codePointAt(text, start, end);
+        int width = codePointWidth(first);
+        int length = Character.charCount(first);
+
+        if (start + length == end) return width;
+        if (isRegionalIndicator(first)) return 2;
+
+        // Variation selector 16 asks for the emoji presentation, which is wide
+        for (int i = start + length; i < end; i++) {
+            if (text.charAt(i) == VARIATION_SELECTOR_16) return 2;
+        }
+        return width;
+    }
+
+    /**
+     * Returns the number of columns a single code point takes up when it is
+     * not part of a larger cluster.
+     *
+     * @param codePoint the code point to measure
+     * @return 0 for combining, format and control characters, 2 for East Asian
+     *         wide and fullwidth characters, 1 otherwise
+     */
+    public static int codePointWidth(int codePoint) {
+        if (codePoint < 0x10000) return bmpWidth(codePoint);
+        if (isZeroWidth(codePoint)) return 0;
+
+        // Binary search over the range starts
+        int low = 0;
+        int high = WIDE_SUPPLEMENTARY.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (codePoint < WIDE_SUPPLEMENTARY[mid * 2]) {
+                high = mid - 1;
+            } else if (codePoint > WIDE_SUPPLEMENTARY[mid * 2 + 1]) {
+                low = mid + 1;
+            } else {
+                return 2;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Returns the offset where a range of text must be cut so that it fits in
+     * {@code columns} columns. The cut always falls between grapheme clusters.
+     *
+     * @param text    the text to cut
+     * @param start   the offset of the first character of the range
+     * @param end     the offset just past the last character of the range
+     * @param columns the number of columns available
+     * @return the offset just past the last cluster that fits
+     */
+    public static int fit(CharSequence text, int start, int end, int columns) {
+        int ascii = asciiEnd(text, start, Math.min(end, start + Math.max(0, columns)));
+        int width = ascii - start;
+        int i = ascii;
+
+        while (i < end) {
+            int next = nextCluster(text, i, end);
+            width += clusterWidth(text, i, next);
+            if (width > columns) break;
+            i = next;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the single character that best shows a grapheme cluster in one
+     * frame buffer cell. Clusters that compose to one character, such as a
+     * letter followed by a combining accent, are composed; otherwise the first
+     * character of the cluster is used.
+     *
+     * @param text  the text holding the cluster
+     * @param start the offset of the cluster's first character
+     * @param end   the offset just past the cluster
+     * @return the code point to store, or {@code U+FFFD} if the cluster starts
+     *         with an unpaired surrogate
+     */
+    public static int toCell(CharSequence text, int start, int end) {
+        int c = codePointAt(text, start, end);
+
+        if (end - start > 1 && Character.isBmpCodePoint(c)) {
+            String composed = Normalizer.normalize(text.subSequence(start, end), Normalizer.Form.NFC);
+            if (composed.length() == 1) return composed.charAt(0);
+        }
+
+        return Character.isBmpCodePoint(c) && Character.isSurrogate((char) c) ? '\uFFFD' : c;
+    }
+
+    private static int codePointAt(CharSequence text, int index, int end) {
+        char high = text.charAt(index);
+        if (Character.isHighSurrogate(high) && index + 1 < end) {
+            char low = text.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) return Character.toCodePoint(high, low);
+        }
+        return high;
+    }
+
+    private static boolean isZeroWidth(int codePoint) {
+        // Hangul medial vowels and final consonants join the preceding syllable
+        if (codePoint >= 0x1160 && codePoint <= 0x11FF) return true;
+
+        switch (Character.getType(codePoint)) {
+            case Character.NON_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.FORMAT:
+            case Character.CONTROL:
+                return codePoint != 0x00AD;
+
+            default:
+                return codePoint == 0x200B;
+        }
+    }
+
+    private static boolean isExtender(int codePoint) {
+        // Nothing below the combining diacritical marks extends a cluster
+        if (codePoint < 0x0300) return false;
+
+        // Emoji skin tone modifiers attach to the emoji before them
+        if (codePoint >= 0x1F3FB && codePoint <= 0x1F3FF) return true;
+
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK
+            || type == Character.ENCLOSING_MARK
+            || type == Character.COMBINING_SPACING_MARK
+            || (codePoint >= 0xFE00 && codePoint <= 0xFE0F)
+            || (codePoint >= 0xE0020 && codePoint <= 0xE007F);
+    }
+
+    private static boolean isRegionalIndicator(int codePoint) {
+        return codePoint >= 0x1F1E6 && codePoint <= 0x1F1FF;
+    }
+
+    private static int bmpWidth(int c) {
+        return (BMP_WIDTHS[c >> 2] >> ((c & 3) * 2)) & 3;
+    }
+
+    private static void setBmpWidth(int c, int width) {
+        int shift = (c & 3) * 2;
+        BMP_WIDTHS[c >> 2] = (byte) ((BMP_WIDTHS[c >> 2] & ~(3 << shift)) | (width << shift));
+    }
+}
@@ -0,0 +1,41 @@
+package textui.text;
+
+/**
+ * Breaks lines by putting as many words on each line as fit, scanning the
+ * text once.
+ *
+ * <p>A word wider than a line is never split. Breaking stops there with an
+ * empty line, which has a word count of zero.</p>
+ */
+class GreedyLineBreaker implements LineBreaker {
+
+    @Override
+    public LineBreaks breakLines(CharSequence text, int width, int maxLines) {
+        LineBreaks breaks = new LineBreaks(text);
+        int end = LineBreaker.trimmedLength(text);
+        int pos = 0;
+
+        while (pos < end && breaks.getLineCount() < maxLines) {
+            int lineStart = pos;
+            int lineEnd = pos;
+            int lineWidth = 0;
+            int wordCount = 0;
+
+            while (pos < end) {
+                int wordEnd = LineBreaker.endOfWord(text, pos, end);
+                int wordWidth = DisplayWidth.of(text, pos, wordEnd);
+                if (lineWidth + wordWidth > width) break;
+
+                lineWidth += wordWidth + 1;
+                lineEnd = wordEnd;
+                wordCount++;
+                pos = wordEnd + 1;
+            }
+
+            breaks.add(lineStart, lineEnd, wordCount);
+            if (wordCount == 0) break;
+        }
+
+        return breaks;
+    }
+}
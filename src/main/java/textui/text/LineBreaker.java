@@ -0,0 +1,68 @@
+package textui.text;
+
+/**
+ * Breaks a text into lines no wider than a given width.
+ *
+ * <p>Words are the runs of characters between single spaces, as produced by
+ * {@code text.split(" ")}: two spaces in a row enclose an empty word, and
+ * trailing spaces are ignored. A line's width is the display width of its
+ * words, as measured by {@link DisplayWidth}, plus one column for the space
+ * between each pair of words.</p>
+ *
+ * <p>Two strategies are provided:</p>
+ * <ul>
+ *   <li>{@link #GREEDY} fills each line with as many words as fit, in a single
+ *       pass over the text</li>
+ *   <li>{@link #OPTIMAL_FIT} chooses the breaks that minimize the sum of the
+ *       squared unused space of every line but the last, which gives more even
+ *       right edges; it is linear in the length of the text for a fixed width</li>
+ * </ul>
+ */
+public interface LineBreaker {
+    /**
+     * Fills every line with as many words as fit.
+     */
+    LineBreaker GREEDY = new GreedyLineBreaker();
+
+    /**
+     * Minimizes the raggedness of the right edge over the whole text.
+     */
+    LineBreaker OPTIMAL_FIT = new OptimalFitLineBreaker();
+
+    /**
+     * Breaks a text into lines.
+     *
+     * @param text     the text to break
+     * @param width    the maximum width of a line
+     * @param maxLines the maximum number of lines to produce; the rest of the text is dropped
+     * @return the offsets of the lines in {@code text}
+     */
+    LineBreaks breakLines(CharSequence text, int width, int maxLines);
+
+    /**
+     * Returns the length of a text once trailing spaces, which do not form
+     * words, are removed.
+     *
+     * @param text the text to measure
+     * @return the offset just past the last character that is not a space
+     */
+    static int trimmedLength(CharSequence text) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == ' ') end--;
+        return end;
+    }
+
+    /**
+     * Returns the offset where the word starting at {@code start} ends.
+     *
+     * @param text  the text to scan
+     * @param start the offset of the first character of the word
+     * @param end   the offset to stop scanning at
+     * @return the offset of the next space, or {@code end} if there is none
+     */
+    static int endOfWord(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && text.charAt(i) != ' ') i++;
+        return i;
+    }
+}
@@ -0,0 +1,133 @@
+package textui.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The result of breaking a text into lines: for every line, the offsets of
+ * its first and last character in the original text.
+ *
+ * <p>Words are separated by single spaces, so line {@code i} is exactly
+ * {@code text.subSequence(getStart(i), getEnd(i))}. Nothing is copied out of
+ * the text until a line's words are asked for.</p>
+ */
+public class LineBreaks {
+    private final CharSequence text;
+    private int[] starts;
+    private int[] ends;
+    private int[] wordCounts;
+    private int lineCount = 0;
+
+    /**
+     * Constructs an empty LineBreaks for the given text.
+     *
+     * @param text the text the offsets refer to
+     */
+    LineBreaks(CharSequence text) {
+        this.text = text;
+        this.starts = new int[16];
+        this.ends = new int[16];
+        this.wordCounts = new int[16];
+    }
+
+
+    // GETTERS
+    /**
+     * Returns the text these line breaks were computed for.
+     *
+     * @return the broken text
+     */
+    public CharSequence getText() {
+        return this.text;
+    }
+
+    /**
+     * Returns the number of lines.
+     *
+     * @return the number of lines the text was broken into
+     */
+    public int getLineCount() {
+        return this.lineCount;
+    }
+
+    /**
+     * Returns the offset of the first character of a line.
+     *
+     * @param line the zero-based line index
+     * @return the offset in the text where the line starts
+     */
+    public int getStart(int line) {
+        return this.starts[line];
+    }
+
+    /**
+     * Returns the offset just past the last character of a line.
+     *
+     * @param line the zero-based line index
+     * @return the offset in the text where the line ends, exclusive
+     */
+    public int getEnd(int line) {
+        return this.ends[line];
+    }
+
+    /**
+     * Returns the number of words on a line. A line can hold no words at all
+     * when the next word is wider than the line.
+     *
+     * @param line the zero-based line index
+     * @return the number of words on the line
+     */
+    public int getWordCount(int line) {
+        return this.wordCounts[line];
+    }
+
+    /**
+     * Returns the text of a line.
+     *
+     * @param line the zero-based line index
+     * @return the characters of the line, without copying them
+     */
+    public CharSequence getLine(int line) {
+        return this.text.subSequence(this.starts[line], this.ends[line]);
+    }
+
+    /**
+     * Returns the words of a line as new strings.
+     *
+     * @param line the zero-based line index
+     * @return a new list containing the words of the line
+     */
+    public List<String> getWords(int line) {
+        List<String> words = new ArrayList<>(this.wordCounts[line]);
+        if (this.wordCounts[line] == 0) return words;
+
+        int start = this.starts[line];
+        int end = this.ends[line];
+
+        for (int i = start; i <= end; i++) {
+            if (i == end || this.text.charAt(i) == ' ') {
+                words.add(this.text.subSequence(start, i).toString());
+                start = i + 1;
+            }
+        }
+
+        return words;
+    }
+
+
+    // BEHAVIOR METHODS
+    void add(int start, int end, int wordCount) {
+        if (this.lineCount == this.starts.length) {
+            int capacity = this.lineCount * 2;
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.wordCounts = Arrays.copyOf(this.wordCounts, capacity);
+        }
+
+        this.starts[this.lineCount] = start;
+        this.ends[this.lineCount] = end;
+        this.wordCounts[this.lineCount] = wordCount;
+        this.lineCount++;
+    }
+}
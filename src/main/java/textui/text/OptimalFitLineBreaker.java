@@ -0,0 +1,84 @@
+package textui.text;
+
+import java.util.Arrays;
+
+/**
+ * Breaks lines so that the sum of the squared unused space at the end of every
+ * line except the last is as small as possible.
+ *
+ * <p>The text is scanned once to record where its words start and end. A
+ * dynamic program then finds, for every word, the cheapest way to end a line
+ * after it. A line holds at most {@code width + 1} words, since every word but
+ * the last takes at least one column for its following space, so the program
+ * does a bounded amount of work per word and runs in linear time.</p>
+ *
+ * <p>A word wider than a line is placed on a line of its own and overflows it.</p>
+ */
+class OptimalFitLineBreaker implements LineBreaker {
+
+    @Override
+    public LineBreaks breakLines(CharSequence text, int width, int maxLines) {
+        int end = LineBreaker.trimmedLength(text);
+
+        // Record word boundaries and widths in a single scan
+        int[] wordStarts = new int[16];
+        int[] wordEnds = new int[16];
+        int[] wordWidths = new int[16];
+        int words = 0;
+
+        for (int pos = 0; pos < end; words++) {
+            if (words == wordStarts.length) {
+                wordStarts = Arrays.copyOf(wordStarts, words * 2);
+                wordEnds = Arrays.copyOf(wordEnds, words * 2);
+                wordWidths = Arrays.copyOf(wordWidths, words * 2);
+            }
+
+            wordStarts[words] = pos;
+            wordEnds[words] = LineBreaker.endOfWord(text, pos, end);
+            wordWidths[words] = DisplayWidth.of(text, pos, wordEnds[words]);
+            pos = wordEnds[words] + 1;
+        }
+
+        // cost[j] is the cheapest way to lay out the first j words; from[j] is
+        // the index of the first word on the last of those lines
+        long[] cost = new long[words + 1];
+        int[] from = new int[words + 1];
+
+        for (int j = 1; j <= words; j++) {
+            cost[j] = Long.MAX_VALUE;
+            int lineWidth = -1;
+
+            for (int i = j - 1; i >= 0; i--) {
+                lineWidth += wordWidths[i] + 1;
+                if (lineWidth > width && i < j - 1) break;
+
+                long slack = Math.max(0, width - lineWidth);
+                long lineCost = j == words ? 0 : slack * slack;
+
+                if (cost[i] + lineCost < cost[j]) {
+                    cost[j] = cost[i] + lineCost;
+                    from[j] = i;
+                }
+            }
+        }
+
+        // Walk the chosen breaks back from the last word
+        int lines = 0;
+        int[] firstWords = new int[16];
+        for (int j = words; j > 0; j = from[j]) {
+            if (lines == firstWords.length) firstWords = Arrays.copyOf(firstWords, lines * 2);
+            firstWords[lines++] = from[j];
+        }
+
+        LineBreaks breaks = new LineBreaks(text);
+
+        for (int line = lines - 1; line >= 0 && breaks.getLineCount() < maxLines; line--) {
+            int first = firstWords[line];
+            int next = line > 0 ? firstWords[line - 1] : words;
+
+            breaks.add(wordStarts[first], wordEnds[next - 1], next - first);
+        }
+
+        return breaks;
+    }
+}
@@ -0,0 +1,168 @@
+package textui.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rows of text stored as ranges of the text they came from.
+ *
+ * <p>Each row is a reference to a source {@link CharSequence} and the offsets
+ * of its first and last character in it; the words of a row are separated by
+ * single spaces. Wrapping a long text therefore costs a few integers per row
+ * instead of a string per word, and painting a row copies a range of the
+ * source straight into the frame buffer. Rows broken from the same text all
+ * share it.</p>
+ */
+public class Paragraph {
+    private CharSequence[] texts = new CharSequence[8];
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int size = 0;
+
+
+    // GETTERS
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows in this paragraph
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether this paragraph has no rows.
+     *
+     * @return true if there are no rows
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the text a row is stored in.
+     *
+     * @param row the zero-based row index
+     * @return the source text of the row
+     */
+    public CharSequence getText(int row) {
+        return this.texts[row];
+    }
+
+    /**
+     * Returns the offset in {@link #getText(int)} where a row starts.
+     *
+     * @param row the zero-based row index
+     * @return the offset of the row's first character
+     */
+    public int getStart(int row) {
+        return this.starts[row];
+    }
+
+    /**
+     * Returns the offset in {@link #getText(int)} where a row ends.
+     *
+     * @param row the zero-based row index
+     * @return the offset just past the row's last character
+     */
+    public int getEnd(int row) {
+        return this.ends[row];
+    }
+
+    /**
+     * Returns the number of characters in a row, including the spaces between words.
+     *
+     * @param row the zero-based row index
+     * @return the width of the row
+     */
+    public int length(int row) {
+        return this.ends[row] - this.starts[row];
+    }
+
+    /**
+     * Returns the words of a row as new strings.
+     *
+     * @param row the zero-based row index
+     * @return a new list containing the words of the row
+     */
+    public List<String> getWords(int row) {
+        List<String> words = new ArrayList<>();
+        if (this.starts[row] == this.ends[row]) return words;
+
+        CharSequence text = this.texts[row];
+        int start = this.starts[row];
+
+        for (int i = start; i <= this.ends[row]; i++) {
+            if (i == this.ends[row] || text.charAt(i) == ' ') {
+                words.add(text.subSequence(start, i).toString());
+                start = i + 1;
+            }
+        }
+
+        return words;
+    }
+
+
+    // BEHAVIOR METHODS
+    /**
+     * Adds a row made of the characters {@code [start, end)} of a text. The
+     * text is referenced, not copied, so it must not change afterwards.
+     *
+     * @param text  the text holding the row
+     * @param start the offset of the row's first character
+     * @param end   the offset just past the row's last character
+     */
+    public void add(CharSequence text, int start, int end) {
+        if (this.size == this.starts.length) {
+            int capacity = this.size * 2;
+            this.texts = Arrays.copyOf(this.texts, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+        }
+
+        this.texts[this.size] = text;
+        this.starts[this.size] = start;
+        this.ends[this.size] = end;
+        this.size++;
+    }
+
+    /**
+     * Adds a row made of a whole line of text.
+     *
+     * @param line the words of the row, separated by single spaces
+     */
+    public void add(CharSequence line) {
+        this.add(line, 0, line.length());
+    }
+
+    /**
+     * Adds one row for every line of a {@link LineBreaks}.
+     *
+     * @param breaks the lines to add
+     */
+    public void addAll(LineBreaks breaks) {
+        for (int i = 0; i < breaks.getLineCount(); i++) {
+            this.add(breaks.getText(), breaks.getStart(i), breaks.getEnd(i));
+        }
+    }
+
+    /**
+     * Adds every row of another paragraph. Only the offsets are copied.
+     *
+     * @param other the paragraph whose rows to add
+     */
+    public void addAll(Paragraph other) {
+        for (int i = 0; i < other.size; i++) {
+            this.add(other.texts[i], other.starts[i], other.ends[i]);
+        }
+    }
+
+    /**
+     * Removes every row.
+     */
+    public void clear() {
+        Arrays.fill(this.texts, 0, this.size, null);
+        this.size = 0;
+    }
+}
@@ -0,0 +1,231 @@
+package textui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import textui.element.Element;
+import textui.element.LayoutResult;
+import textui.element.TextElement;
+import textui.element.Viewport;
+import textui.render.FrameBuffer;
+
+public class TextUITest {
+    @Test
+    void testDrawToStream() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Element element = new Element(1, 3).setFill(true);
+
+        new TextUI(element, out).draw();
+
+        assertEquals("###\n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testDiffMode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Element element = new Element(1, 3);
+        TextUI ui = new TextUI(element, out).setRenderMode(RenderMode.DIFF);
+
+        ui.draw();
+        out.reset();
+
+        element.setFill(true);
+        ui.draw();
+
+        assertEquals("\u001b[1;1H###\u001b[2;1H", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRenderThread() throws InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Element element = new Element(1, 3);
+        TextUI ui = new TextUI(element, out).start(1000);
+
+        try {
+            assertTrue(ui.isRunning());
+            assertThrows(IllegalStateException.class, () -> ui.start(10));
+
+            ui.update(() -> element.setFill(true));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!out.toString(StandardCharsets.UTF_8).contains("###")
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        } finally {
+            ui.stop();
+        }
+
+        assertFalse(ui.isRunning());
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("###\n"));
+    }
+
+    @Test
+    void testRenderThreadFailureIsReported() throws InterruptedException {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("terminal closed");
+            }
+        };
+        TextUI ui = new TextUI(new Element(1, 3), broken).start(1000);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ui.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertFalse(ui.isRunning());
+        UncheckedIOException failure = assertThrows(UncheckedIOException.class, ui::stop);
+        assertEquals("terminal closed", failure.getCause().getMessage());
+
+        // The failure is only reported once
+        ui.stop();
+    }
+
+    @Test
+    void testBufferBytes() {
+        Element body = new Element(2, 10);
+        TextUI ui = new TextUI(body, new ByteArrayOutputStream());
+        int writerBytes = 4096;
+
+        assertEquals(20 * Long.BYTES + writerBytes, ui.getBufferBytes());
+
+        // DIFF mode keeps the previous frame, and a layer keeps its screen and a composite
+        ui.setRenderMode(RenderMode.DIFF);
+        ui.addLayer(new Element(1, 3), 0, 0, 0);
+        assertEquals((20 + 20 + 20 + 3) * Long.BYTES + writerBytes, ui.getBufferBytes());
+    }
+
+    @Test
+    void testViewport() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Element element = new Element(2, 2).setBorder();
+        TextUI ui = new TextUI(element, out).setViewport(new Viewport(2, 1, 2, 5));
+
+        ui.draw();
+
+        assertEquals("  #  \n###  \n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testViewportIsOnlyPaintedWhenItChanges() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] bodyPaints = new int[1];
+        Element body = new Element(4, 4) {
+            @Override
+            protected void paintContent(FrameBuffer target, LayoutResult layout) {
+                bodyPaints[0]++;
+                super.paintContent(target, layout);
+            }
+        };
+        TextUI ui = new TextUI(body, out).setViewport(new Viewport(0, 0, 2, 4));
+
+        ui.draw();
+        ui.draw();
+        ui.setViewport(new Viewport(0, 0, 2, 4));
+        ui.draw();
+        assertEquals(1, bodyPaints[0]);
+
+        // Scrolling or changing the body paints the visible part again
+        ui.setViewport(new Viewport(1, 0, 2, 4));
+        ui.draw();
+        body.setFill(true);
+        out.reset();
+        ui.draw();
+        assertEquals(3, bodyPaints[0]);
+        assertEquals("####\n####\n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLayersAreCompositedWithoutRepaintingTheBody() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] bodyPaints = new int[1];
+        Element body = new Element(2, 6) {
+            @Override
+            protected void paintContent(FrameBuffer target, LayoutResult layout) {
+                bodyPaints[0]++;
+                super.paintContent(target, layout);
+            }
+        }.setFill(true);
+        TextUI ui = new TextUI(body, out);
+        ui.draw();
+
+        Layer popup = ui.addLayer(new TextElement(1, 2).setText("hi"), 1, 2, 1);
+        Layer shadow = ui.addLayer(new Element(1, 3), 1, 3, 0);
+        out.reset();
+        ui.draw();
+        assertEquals("######\n##hi  \n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+
+        popup.moveTo(0, 0);
+        shadow.setZIndex(2);
+        out.reset();
+        ui.draw();
+        assertEquals("hi####\n###   \n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+
+        shadow.remove();
+        popup.setVisible(false);
+        out.reset();
+        ui.draw();
+        assertEquals("######\n######\n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+        assertEquals(List.of(popup), ui.getLayers());
+        assertEquals(1, bodyPaints[0]);
+    }
+
+    @Test
+    void testLayerCoveringHalfOfAWideCharacter() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextUI ui = new TextUI(new TextElement(1, 4).setText("한ab"), out);
+        ui.addLayer(new Element(1, 1).setFill(true), 0, 1, 0);
+
+        ui.draw();
+
+        assertEquals(" #ab\n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLayerCuttingWideCharactersOnBothEdges() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextUI ui = new TextUI(new TextElement(1, 6).setText("\ud55c\ud55c\ud55c"), out);
+        ui.addLayer(new Element(1, 2).setFill(true), 0, 1, 0);
+
+        // The layer covers the tail of the first character and the head of the second
+        ui.draw();
+
+        assertEquals(" ## \ud55c\n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testMovingALayerKeepsTheViewportFrame() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] bodyPaints = new int[1];
+        Element body = new Element(4, 4) {
+            @Override
+            protected void paintContent(FrameBuffer target, LayoutResult layout) {
+                bodyPaints[0]++;
+                super.paintContent(target, layout);
+            }
+        }.setFill(true);
+        TextUI ui = new TextUI(body, out).setViewport(new Viewport(1, 0, 2, 4));
+        Layer popup = ui.addLayer(new Element(1, 1), 0, 0, 0);
+        ui.draw();
+
+        popup.moveTo(1, 3);
+        out.reset();
+        ui.draw();
+
+        assertEquals("####\n### \n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+        assertEquals(1, bodyPaints[0]);
+    }
+}
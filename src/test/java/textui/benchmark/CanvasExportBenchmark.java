@@ -0,0 +1,49 @@
+package textui.benchmark;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import textui.element.Element;
+import textui.render.DirectFrameBuffer;
+
+/**
+ * Renders a very large canvas into a {@link DirectFrameBuffer} and writes it to
+ * a file, reporting the time taken and how much the heap grew.
+ *
+ * <p>This is not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes textui.benchmark.CanvasExportBenchmark [size]}.</p>
+ */
+public class CanvasExportBenchmark {
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        Element canvas = new Element(size, size).setBorder();
+        for (int i = 0; i < 100; i++) {
+            canvas.insertChild(new Element(size / 100 - 1, size - 2).setBorder());
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        long start = System.nanoTime();
+        DirectFrameBuffer buffer = new DirectFrameBuffer(canvas.getHeight(), canvas.getWidth());
+        canvas.renderTo(buffer);
+        long painted = System.nanoTime();
+
+        Path file = Files.createTempFile("canvas", ".txt");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            buffer.writeTo(channel, 0);
+        }
+        long written = System.nanoTime();
+
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%dx%d: paint %.1f ms, write %.1f ms, %d bytes, heap growth %d KB%n",
+            size, size, (painted - start) / 1e6, (written - painted) / 1e6,
+            Files.size(file), (heapAfter - heapBefore) / 1024);
+
+        Files.delete(file);
+    }
+}
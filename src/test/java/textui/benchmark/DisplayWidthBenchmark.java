@@ -0,0 +1,59 @@
+package textui.benchmark;
+
+import java.util.Random;
+
+import textui.text.DisplayWidth;
+
+/**
+ * Measures the cost per character of {@link DisplayWidth#of(CharSequence)} on
+ * plain ASCII, on mixed Latin and CJK text, and on text with emoji sequences.
+ * ASCII should cost about as much as a loop over the characters.
+ *
+ * <p>This is not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes textui.benchmark.DisplayWidthBenchmark}.</p>
+ */
+public class DisplayWidthBenchmark {
+    private static final String[] ASCII = { "a", "an", "the", "layout", "terminal", "render", "element", "is" };
+    private static final String[] MIXED = { "the", "layout", "日本語", "テスト", "café", "한국어", "element", "is" };
+    private static final String[] EMOJI = { "ok", "👍🏽", "render", "🇿🇦", "👨‍👩‍👧", "done", "❤️", "is" };
+
+    private static volatile int sink;
+
+    public static void main(String[] args) {
+        int size = 1 << 22;
+
+        print("ascii", text(ASCII, size));
+        print("mixed", text(MIXED, size));
+        print("emoji", text(EMOJI, size));
+    }
+
+    private static void print(String name, String text) {
+        long width = time(() -> sink = DisplayWidth.of(text));
+
+        System.out.printf("%s %8d chars: %6.3f ns/char (%d columns)%n",
+            name, text.length(), (double) width / text.length(), sink);
+    }
+
+    private static String text(String[] words, int size) {
+        Random random = new Random(size);
+        StringBuilder builder = new StringBuilder(size + 16);
+
+        while (builder.length() < size) {
+            builder.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        return builder.toString();
+    }
+
+    // Returns the best of five runs, in nanoseconds
+    private static long time(Runnable run) {
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,41 @@
+package textui.benchmark;
+
+import textui.element.Display;
+import textui.element.Element;
+
+/**
+ * Measures how long a flex container takes to lay out its children again, for
+ * growing numbers of children. The time per child should stay flat.
+ *
+ * <p>This is not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes textui.benchmark.FlexLayoutBenchmark [children]}.</p>
+ */
+public class FlexLayoutBenchmark {
+    public static void main(String[] args) throws Exception {
+        int children = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        for (int count = children; count <= children * 8; count *= 2) {
+            Element row = new Element(1, count * 2).setDisplay(Display.FLEX);
+            for (int i = 0; i < count; i++) {
+                row.insertChild(new Element(1, 1).setFlexGrow(i % 3));
+            }
+
+            // Warm up, then time layouts of the row alone; its children stay cached
+            int runs = 50;
+            for (int i = 0; i < runs; i++) {
+                row.setFill(i % 2 == 0);
+                row.getLayout();
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                row.setFill(i % 2 == 0);
+                row.getLayout();
+            }
+            long elapsed = (System.nanoTime() - start) / runs;
+
+            System.out.printf("%d children: %.2f ms per layout, %.1f ns per child%n",
+                count, elapsed / 1e6, (double) elapsed / count);
+        }
+    }
+}
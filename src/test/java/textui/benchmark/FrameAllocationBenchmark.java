@@ -0,0 +1,58 @@
+package textui.benchmark;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import textui.RenderMode;
+import textui.TextUI;
+import textui.element.Display;
+import textui.element.Element;
+import textui.element.TextElement;
+
+/**
+ * Measures how many bytes a {@link TextUI} allocates per frame once it has
+ * warmed up, when one text element changes and when a flex row is laid out again.
+ *
+ * <p>This is not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes textui.benchmark.FrameAllocationBenchmark [frames]}.</p>
+ */
+public class FrameAllocationBenchmark {
+    public static void main(String[] args) throws Exception {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        Element body = new Element(24, 80).setBorder();
+        Element row = new Element(3, 78).setDisplay(Display.FLEX);
+        for (int i = 0; i < 10; i++) row.insertChild(new Element(1, 5).setBorder());
+        Element grid = new Element(6, 78).setDisplay(Display.INLINE);
+        for (int i = 0; i < 20; i++) grid.insertChild(new Element(2, 9));
+        TextElement status = new TextElement(1, 78);
+        body.insertChildren(List.of(row, grid, status));
+
+        TextUI ui = new TextUI(body, OutputStream.nullOutputStream()).setRenderMode(RenderMode.DIFF);
+
+        for (int i = 0; i < frames; i++) {
+            status.setText("frame " + (i % 10));
+            ui.draw();
+        }
+
+        System.out.printf("text changed: %d bytes/frame%n", allocatedPerFrame(frames, () -> {
+            status.setText("x");
+            ui.draw();
+        }));
+        System.out.printf("flex row laid out: %d bytes/frame%n", allocatedPerFrame(frames, () -> {
+            row.setFill(false);
+            ui.draw();
+        }));
+        System.out.printf("nothing changed: %d bytes/frame%n", allocatedPerFrame(frames, ui::draw));
+    }
+
+    private static long allocatedPerFrame(int frames, Runnable frame) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < frames; i++) frame.run();
+        return (threads.getThreadAllocatedBytes(thread) - before) / frames;
+    }
+}
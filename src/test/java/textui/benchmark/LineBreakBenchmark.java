@@ -0,0 +1,58 @@
+package textui.benchmark;
+
+import java.util.Random;
+
+import textui.element.TextElement;
+import textui.text.LineBreaker;
+
+/**
+ * Measures how line breaking scales with the length of the text. Each size is
+ * twice the previous one, so linear scaling shows up as a constant time per
+ * character.
+ *
+ * <p>This is not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes textui.benchmark.LineBreakBenchmark}.</p>
+ */
+public class LineBreakBenchmark {
+    private static final String[] WORDS = { "a", "an", "the", "layout", "terminal", "render", "element", "is" };
+
+    public static void main(String[] args) {
+        int width = 80;
+
+        for (int size = 1 << 16; size <= 1 << 22; size <<= 1) {
+            String text = text(size);
+            int rows = size / width * 2;
+
+            long greedy = time(() -> LineBreaker.GREEDY.breakLines(text, width, Integer.MAX_VALUE));
+            long optimal = time(() -> LineBreaker.OPTIMAL_FIT.breakLines(text, width, Integer.MAX_VALUE));
+            long setText = time(() -> new TextElement(rows, width).setText(text));
+
+            System.out.printf("%8d chars: greedy %6.2f ns/char, optimal %6.2f ns/char, setText %6.2f ns/char%n",
+                size, (double) greedy / size, (double) optimal / size, (double) setText / size);
+        }
+    }
+
+    private static String text(int size) {
+        Random random = new Random(size);
+        StringBuilder builder = new StringBuilder(size + 16);
+
+        while (builder.length() < size) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        builder.setLength(size);
+        return builder.toString();
+    }
+
+    // Returns the best of five runs, in nanoseconds
+    private static long time(Runnable run) {
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+}
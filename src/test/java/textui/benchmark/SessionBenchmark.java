@@ -0,0 +1,38 @@
+package textui.benchmark;
+
+import java.io.OutputStream;
+
+import textui.element.Element;
+import textui.element.TextElement;
+import textui.session.SessionManager;
+
+/**
+ * Measures how many headless sessions a {@link SessionManager} can render per second.
+ *
+ * <p>This is not a unit test; run it with
+ * {@code java -cp target/classes:target/test-classes textui.benchmark.SessionBenchmark [sessions] [permits]}.</p>
+ */
+public class SessionBenchmark {
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int permits = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        try (SessionManager manager = new SessionManager(permits, Long.MAX_VALUE)) {
+            for (int i = 0; i < sessions; i++) {
+                Element body = new Element(24, 80).setBorder();
+                body.insertChild(new TextElement(1, 78).setText("session " + i));
+                manager.openSession(body, OutputStream.nullOutputStream());
+            }
+
+            // Warm up once so the second pass measures cached rendering
+            manager.renderAll().join();
+
+            long start = System.nanoTime();
+            manager.renderAll().join();
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("%d sessions, %d permits: %.1f ms, %.0f frames/s, %d buffer bytes%n",
+                sessions, permits, elapsed / 1e6, sessions / (elapsed / 1e9), manager.getReservedBufferBytes());
+        }
+    }
+}
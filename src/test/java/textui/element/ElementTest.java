@@ -3,16 +3,23 @@ package textui.element;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import textui.TextUI;
+import textui.render.FrameBuffer;
 import textui.exception.ChildrenNotAllowedException;
 import textui.exception.ValueCannotBeSetException;
+import textui.render.Cell;
+import textui.render.Style;
 
 public class ElementTest {
     @Test
@@ -1102,4 +1109,438 @@ public class ElementTest {
             System.setOut(originalOut);
         }
     }
+
+    @Test
+    void testDirtyPropagation() throws ChildrenNotAllowedException {
+        Element root = new Element(4, 6);
+        Element panel = new Element(2, 6);
+        Element leaf = new Element(1, 2);
+        root.insertChild(panel);
+        panel.insertChild(leaf);
+
+        assertTrue(root.isDirty());
+        root.getFrameBuffer();
+
+        assertAll(() -> {
+            assertFalse(root.isDirty());
+            assertFalse(panel.isDirty());
+            assertFalse(leaf.isDirty());
+        });
+
+        leaf.setFill(true);
+
+        assertAll(() -> {
+            assertTrue(root.isDirty());
+            assertTrue(panel.isDirty());
+            assertTrue(leaf.isDirty());
+        });
+    }
+
+    @Test
+    void testPaintOnlyChangeKeepsLayout() throws ChildrenNotAllowedException {
+        Element root = new Element(4, 6);
+        Element panel = new Element(2, 6);
+        Element leaf = new Element(1, 2);
+        root.insertChild(panel);
+        panel.insertChild(leaf);
+
+        LayoutResult layout = root.getLayout();
+        root.getFrameBuffer();
+
+        // Painting again does not lay the tree out again
+        leaf.setFill(true);
+        assertTrue(root.isDirty());
+        assertSame(layout, root.getLayout());
+        assertEquals(List.of("##    ", "      ", "      ", "      "), rows(root.getFrameBuffer()));
+
+        // Each change to the size still reaches the ancestors
+        leaf.setHeight(2);
+        assertNotSame(layout, root.getLayout());
+        layout = root.getLayout();
+        leaf.setWidth(3);
+        assertNotSame(layout, root.getLayout());
+        assertEquals(List.of("###   ", "###   ", "      ", "      "), rows(root.getFrameBuffer()));
+    }
+
+    @Test
+    void testCleanSubtreeIsReused() throws ChildrenNotAllowedException {
+        Element root = new Element(2, 4);
+        Element left = new Element(1, 2).setFill(true).setCacheBoundary(true);
+        Element right = new Element(1, 2).setCacheBoundary(true);
+        root.insertChild(left).insertChild(right);
+
+        assertEquals('#', root.getFrameBuffer().get(0, 0));
+        assertEquals(' ', root.getFrameBuffer().get(1, 0));
+
+        right.setFill(true);
+
+        assertFalse(left.isDirty());
+        assertEquals('#', root.getFrameBuffer().get(0, 0));
+        assertEquals('#', root.getFrameBuffer().get(1, 0));
+        assertFalse(right.isDirty());
+    }
+
+    @Test
+    void testOnlyCacheBoundariesKeepACopy() throws ChildrenNotAllowedException {
+        Element root = new Element(3, 4);
+        Element panel = new Element(2, 4).setCacheBoundary(true);
+        Element leaf = new Element(1, 4).setFill(true);
+        Element sibling = new Element(1, 4);
+        root.insertChild(panel).insertChild(sibling);
+        panel.insertChild(leaf);
+
+        root.getFrameBuffer();
+
+        assertEquals(2, panel.screen.getHeight());
+        assertEquals(0, leaf.screen.getHeight());
+        assertEquals(0, sibling.screen.getHeight());
+
+        sibling.setFill(true);
+        assertEquals(List.of("####", "    ", "####"), rows(root.getFrameBuffer()));
+        assertFalse(panel.isDirty());
+    }
+
+    @Test
+    void testMeasurementIsCached() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element root = new Element().setDisplay(Display.FLEX);
+        Element child = new Element(2, 3);
+        root.insertChild(child).insertChild(new Element(1, 5));
+
+        assertEquals(8, root.getElementWidth());
+        assertEquals(2, root.getElementHeight());
+
+        long hits = Element.getMeasureCacheHits();
+        long misses = Element.getMeasureCacheMisses();
+
+        assertEquals(8, root.getElementWidth());
+        assertEquals(2, root.getElementHeight());
+        assertEquals(hits + 2, Element.getMeasureCacheHits());
+        assertEquals(misses, Element.getMeasureCacheMisses());
+
+        child.setWidth(7);
+
+        assertEquals(12, root.getElementWidth());
+        assertTrue(Element.getMeasureCacheMisses() > misses);
+    }
+
+    @Test
+    void testLayout() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element root = new Element(4, 10)
+            .setBorder()
+            .setDisplay(Display.FLEX);
+        Element first = new Element(2, 3);
+        Element second = new Element(2, 4);
+        root.insertChild(first).insertChild(second);
+
+        LayoutResult layout = root.getLayout();
+
+        assertAll(() -> {
+            assertEquals(6, layout.height());
+            assertEquals(12, layout.width());
+            assertEquals(2, layout.children().size());
+            assertEquals(1, layout.children().get(1).top());
+            assertEquals(4, layout.children().get(1).left());
+        });
+
+        assertEquals(root, layout.elementAt(0, 0));
+        assertEquals(first, layout.elementAt(1, 1));
+        assertEquals(second, layout.elementAt(2, 7));
+        assertEquals(null, layout.elementAt(6, 0));
+
+        // The layout is reused until something changes
+        assertTrue(layout == root.getLayout());
+        second.setWidth(5);
+        assertFalse(layout == root.getLayout());
+    }
+
+    @Test
+    void testParallelPaintMatchesSequential() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element sequential = new Element(6, 120).setBorder().setDisplay(Display.FLEX);
+        Element parallel = new Element(6, 120).setBorder().setDisplay(Display.FLEX)
+            .setParallelPaintThreshold(1);
+
+        for (Element root : List.of(sequential, parallel)) {
+            for (int i = 0; i < 30; i++) {
+                Element panel = new Element(2, 2).setBorder().setFill(i % 2 == 0);
+                panel.insertChild(new Element(1, 1).setFill(i % 3 == 0));
+                root.insertChild(panel);
+            }
+        }
+
+        assertEquals(sequential.getScreen(), parallel.getScreen());
+    }
+
+    @Test
+    void testChildrenOverlap() {
+        Element element = new Element();
+
+        // Side by side, stacked, and touching corners do not overlap
+        assertFalse(Element.childrenOverlap(box(element, 0, 0, 4, 9,
+            box(element, 0, 0, 3, 1), box(element, 0, 1, 3, 1), box(element, 0, 2, 3, 1))));
+        assertFalse(Element.childrenOverlap(box(element, 0, 0, 4, 9,
+            box(element, 0, 0, 1, 9), box(element, 1, 0, 1, 9), box(element, 2, 0, 2, 4), box(element, 2, 4, 2, 5))));
+
+        assertTrue(Element.childrenOverlap(box(element, 0, 0, 4, 9,
+            box(element, 0, 0, 2, 5), box(element, 3, 0, 1, 9), box(element, 1, 4, 1, 1))));
+        assertTrue(Element.childrenOverlap(box(element, 0, 0, 4, 9,
+            box(element, 0, 3, 4, 3), box(element, 2, 0, 1, 9))));
+
+        // Only the part inside the parent counts
+        assertFalse(Element.childrenOverlap(box(element, 0, 0, 4, 9,
+            box(element, 0, 0, 4, 9), box(element, 4, 0, 2, 9))));
+    }
+
+    private static LayoutResult box(Element element, int top, int left, int height, int width,
+                                    LayoutResult... children) {
+        return new LayoutResult(element, top, left, height, width, List.of(children));
+    }
+
+    @Test
+    void testViewportCulling() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element document = new Element(100, 10);
+        List<Element> rows = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            Element row = new TextElement(1, 10).setText("row " + i);
+            rows.add(row);
+            document.insertChild(row);
+        }
+
+        FrameBuffer visible = new FrameBuffer(3, 10);
+        document.renderTo(visible, new Viewport(50, 0, 3, 10));
+
+        StringBuilder builder = new StringBuilder();
+        visible.appendTo(builder);
+        assertEquals("row 50    \nrow 51    \nrow 52    \n", builder.toString());
+
+        // Rows outside the viewport were never painted
+        assertTrue(rows.get(0).isDirty());
+        assertFalse(rows.get(51).isDirty());
+        assertTrue(rows.get(53).isDirty());
+    }
+
+    @Test
+    void testStyleIsInherited() throws ChildrenNotAllowedException {
+        Style blue = Style.DEFAULT.withBackground(Style.BLUE);
+        Style bold = Style.DEFAULT.with(Style.BOLD);
+
+        Element child = new Element(1, 2);
+        Element plain = new Element(1, 2);
+        Element parent = new Element(2, 4).setStyle(blue);
+        parent.insertChild(child);
+        parent.insertChild(plain.setStyle(bold));
+
+        FrameBuffer screen = parent.getFrameBuffer();
+        assertEquals(blue.pack(), Cell.styleOf(screen.getCell(0, 0)));
+        assertEquals(bold.pack(), Cell.styleOf(screen.getCell(1, 0)));
+        assertEquals(blue.pack(), Cell.styleOf(screen.getCell(1, 3)));
+
+        // The child's cache is painted again once the style it inherits changes
+        parent.setStyle(null);
+        assertEquals(0, Cell.styleOf(parent.getFrameBuffer().getCell(0, 0)));
+    }
+
+    @Test
+    void testBoxDrawingBorder() {
+        Element element = new Element(1, 2).setBorder().setBorderStyle(BorderStyle.SINGLE);
+        assertEquals(List.of("┌──┐", "│  │", "└──┘"), rows(element.getFrameBuffer()));
+
+        element.setBorderStyle(BorderStyle.ROUNDED).setBorder(true, false, true, true);
+        assertEquals(List.of("╭──", "│  ", "╰──"), rows(element.getFrameBuffer()));
+
+        element.setBorderStyle(BorderStyle.ASCII).setBorder();
+        assertEquals(List.of("####", "#  #", "####"), rows(element.getFrameBuffer()));
+    }
+
+    @Test
+    void testBordersJoin() {
+        FrameBuffer target = new FrameBuffer(3, 9);
+        Element left = new Element(1, 3).setBorder().setBorderStyle(BorderStyle.SINGLE);
+        Element right = new Element(1, 3).setBorder().setBorderStyle(BorderStyle.SINGLE);
+
+        left.renderTo(target);
+        right.renderTo(target.region(0, 4, 3, 5));
+        assertEquals(List.of("┌───┬───┐", "│   │   │", "└───┴───┘"), rows(target));
+
+        // A clean element joins its cached border with what is beneath it now
+        target.clear(' ');
+        target.fillRow(1, 0, 9, '─');
+        right.renderTo(target.region(0, 4, 3, 5));
+        assertEquals(List.of("    ┌───┐", "────┼   ┼", "    └───┘"), rows(target));
+
+        // Only borders of the same weight join
+        right.setBorderStyle(BorderStyle.DOUBLE).renderTo(target.region(0, 4, 3, 5));
+        assertEquals(List.of("    ╔═══╗", "────║   ║", "    ╚═══╝"), rows(target));
+    }
+
+    @Test
+    void testBorderStyleJunctions() {
+        assertEquals('┼', BorderStyle.SINGLE.junction(
+            BorderStyle.UP | BorderStyle.RIGHT | BorderStyle.DOWN | BorderStyle.LEFT));
+        assertEquals('╗', BorderStyle.DOUBLE.junction(BorderStyle.DOWN | BorderStyle.LEFT));
+        assertEquals(BorderStyle.RIGHT | BorderStyle.DOWN, BorderStyle.SINGLE.maskOf('╭'));
+        assertEquals(0, BorderStyle.SINGLE.maskOf('═'));
+        assertEquals(0, BorderStyle.ASCII.maskOf('#'));
+    }
+
+    @Test
+    void testFlexGrowAndShrink() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element row = new Element(1, 16).setDisplay(Display.FLEX);
+        Element narrow = new Element(1, 2).setBorder(false, true).setFlexGrow(1);
+        Element wide = new Element(1, 2).setBorder(false, true).setFlexGrow(2);
+        row.insertChild(narrow).insertChild(wide);
+
+        // 8 free columns split 1:2
+        assertEquals(List.of("#    ##        #"), rows(row.getFrameBuffer()));
+
+        Element full = new Element(1, 10).setDisplay(Display.FLEX);
+        full.insertChild(new Element(1, 4).setBorder(false, true).setFlexShrink(1));
+        full.insertChild(new Element(1, 4).setBorder(false, true).setFlexShrink(1));
+
+        // 2 columns of overflow taken equally from both
+        assertEquals(List.of("#   ##   #"), rows(full.getFrameBuffer()));
+
+        Element basis = new Element(1, 10).setDisplay(Display.FLEX);
+        basis.insertChild(new Element(1, 4).setBorder(false, true).setFlexBasis(3));
+        assertEquals(List.of("# #       "), rows(basis.getFrameBuffer()));
+    }
+
+    @Test
+    void testFlexLayout_SpaceApartSingleChild() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element row = new Element(1, 10).setDisplay(Display.FLEX).setJustifyContent(FlexAlign.SPACE_APART);
+        row.insertChild(new Element(1, 2).setBorder(false, true));
+
+        assertEquals(List.of("#  #      "), rows(row.getFrameBuffer()));
+    }
+
+    @Test
+    void testFlexWrap() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element tiles = new Element(4, 10)
+            .setDisplay(Display.FLEX)
+            .setJustifyContent(FlexAlign.CENTER)
+            .setAlignItems(FlexAlign.FLEX_END)
+            .setFlexWrap(true);
+        tiles.insertChild(new Element(1, 2).setBorder(false, true));
+        tiles.insertChild(new Element(2, 2).setBorder(false, true));
+        tiles.insertChild(new Element(1, 2).setBorder(false, true));
+
+        // Each line is centered on its own and as tall as its tallest tile
+        assertEquals(List.of(
+            "     #  # ",
+            " #  ##  # ",
+            "   #  #   ",
+            "          "), rows(tiles.getFrameBuffer()));
+
+        // Narrowing the container reflows the tiles one per line
+        tiles.setWidth(6);
+        assertEquals(List.of(" #  # ", " #  # ", " #  # ", " #  # "), rows(tiles.getFrameBuffer()));
+    }
+
+    @Test
+    void testGridLayout() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element grid = new Element(3, 10)
+            .setDisplay(Display.GRID)
+            .setGridColumns(Track.fixed(3), Track.fraction(1), Track.auto())
+            .setGridRows(Track.fixed(1), Track.fraction(1));
+        grid.insertChild(new TextElement(1, 1).setText("a"));
+        grid.insertChild(new TextElement(1, 1).setText("b"));
+        grid.insertChild(new TextElement(1, 2).setText("c"));
+        grid.insertChild(new TextElement(1, 1).setText("d").setGridCell(1, 0).setGridSpan(1, 3));
+
+        List<LayoutResult> cells = grid.getLayout().children();
+        assertEquals(List.of(0, 3, 8, 0), cells.stream().map(LayoutResult::left).toList());
+        assertEquals(List.of(3, 5, 2, 10), cells.stream().map(LayoutResult::width).toList());
+        assertEquals(List.of(0, 0, 0, 1), cells.stream().map(LayoutResult::top).toList());
+        assertEquals(List.of(1, 1, 1, 2), cells.stream().map(LayoutResult::height).toList());
+
+        assertEquals(List.of("a  b    c ", "d         ", "          "), rows(grid.getFrameBuffer()));
+    }
+
+    @Test
+    void testGridKeepsExplicitRow() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element grid = new Element(3, 6)
+            .setDisplay(Display.GRID)
+            .setGridColumns(Track.fixed(2), Track.fixed(2), Track.fixed(2))
+            .setGridRows(Track.fixed(1), Track.fixed(1), Track.fixed(1));
+        grid.insertChild(new TextElement(1, 1).setText("a").setGridCell(2, Element.AUTO));
+        grid.insertChild(new TextElement(1, 1).setText("b").setGridCell(Element.AUTO, 1));
+        grid.insertChild(new TextElement(1, 1).setText("c").setGridCell(2, Element.AUTO));
+
+        // Only the missing axis is placed automatically
+        List<LayoutResult> cells = grid.getLayout().children();
+        assertEquals(List.of(2, 0, 2), cells.stream().map(LayoutResult::top).toList());
+        assertEquals(List.of(0, 2, 2), cells.stream().map(LayoutResult::left).toList());
+        assertEquals(List.of("  b   ", "      ", "a c   "), rows(grid.getFrameBuffer()));
+    }
+
+    @Test
+    void testGridAutoPlacementSkipsOccupiedCells() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element grid = new Element(2, 6)
+            .setDisplay(Display.GRID)
+            .setGridColumns(Track.fixed(2), Track.fixed(2), Track.fixed(2))
+            .setGridRows(Track.fixed(1), Track.fixed(1));
+        grid.insertChild(new TextElement(1, 1).setText("a"));
+        grid.insertChild(new TextElement(1, 1).setText("b"));
+        grid.insertChild(new TextElement(1, 1).setText("x").setGridCell(0, 1).setGridSpan(2, 1));
+        grid.insertChild(new TextElement(1, 1).setText("c"));
+
+        // The auto-placed children go around the explicitly placed one
+        List<LayoutResult> cells = grid.getLayout().children();
+        assertEquals(List.of(0, 0, 0, 1), cells.stream().map(LayoutResult::top).toList());
+        assertEquals(List.of(0, 4, 2, 0), cells.stream().map(LayoutResult::left).toList());
+        assertEquals(List.of("a x b ", "c     "), rows(grid.getFrameBuffer()));
+    }
+
+    @Test
+    void testGridInAutoSizedParent() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element grid = new Element()
+            .setDisplay(Display.GRID)
+            .setGridColumns(Track.fixed(3), Track.auto(), Track.fraction(1))
+            .setGridRows(Track.fixed(1), Track.auto());
+        grid.insertChild(new Element(1, 1));
+        grid.insertChild(new Element(2, 4));
+        grid.insertChild(new Element(3, 2).setGridCell(1, 0));
+
+        Element parent = new Element().insertChild(grid).insertChild(new Element(2, 9));
+
+        // The grid is as large as its fixed and auto tracks
+        assertEquals(4, grid.getElementHeight());
+        assertEquals(7, grid.getElementWidth());
+        assertEquals(6, parent.getElementHeight());
+        assertEquals(9, parent.getElementWidth());
+    }
+
+    @Test
+    void testGridTracksAreCached() throws ChildrenNotAllowedException, ValueCannotBeSetException {
+        Element header = new Element(1, 10);
+        Element grid = new Element(2, 10).setDisplay(Display.GRID).setGridColumns(Track.fraction(1), Track.fraction(1));
+        Element cell = new Element(1, 1);
+        grid.insertChild(cell);
+        Element page = new Element(5, 10).insertChild(header).insertChild(grid);
+        page.getLayout();
+        GridTracks tracks = grid.getGridTracks();
+
+        // Moving the grid keeps its tracks
+        header.setHeight(2);
+        assertEquals(2, page.getLayout().children().get(1).top());
+        assertSame(tracks, grid.getGridTracks());
+
+        // Changing a child or the grid's width resolves them again
+        cell.setGridSpan(1, 2);
+        assertNotSame(tracks, grid.getGridTracks());
+        grid.setWidth(12);
+        assertEquals(6, grid.getGridTracks().columnStarts[1]);
+    }
+
+    private static List<String> rows(FrameBuffer buffer) {
+        List<String> rows = new ArrayList<>();
+        for (int row = 0; row < buffer.getHeight(); row++) {
+            StringBuilder builder = new StringBuilder();
+            for (int col = 0; col < buffer.getWidth(); col++) {
+                builder.append(buffer.get(row, col));
+            }
+            rows.add(builder.toString());
+        }
+        return rows;
+    }
 }
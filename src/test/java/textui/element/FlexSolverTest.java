@@ -0,0 +1,67 @@
+package textui.element;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class FlexSolverTest {
+    private static int[][] solve(int available, FlexAlign justify, int[] bases, int[] grows, int[] shrinks) {
+        int[] sizes = new int[bases.length];
+        int[] offsets = new int[bases.length];
+        FlexSolver.solve(0, bases.length, available, justify, bases, grows, shrinks, sizes, offsets);
+        return new int[][] { sizes, offsets };
+    }
+
+    @Test
+    void testDefaultsKeepBases() {
+        int[][] result = solve(20, FlexAlign.FLEX_START, new int[] { 3, 4 }, new int[2], new int[2]);
+        assertArrayEquals(new int[] { 3, 4 }, result[0]);
+        assertArrayEquals(new int[] { 0, 3 }, result[1]);
+    }
+
+    @Test
+    void testGrowSharesAddUpExactly() {
+        int[][] result = solve(10, FlexAlign.FLEX_START, new int[] { 0, 0, 0 }, new int[] { 1, 1, 1 }, new int[3]);
+        assertArrayEquals(new int[] { 3, 3, 4 }, result[0]);
+        assertArrayEquals(new int[] { 0, 3, 6 }, result[1]);
+    }
+
+    @Test
+    void testShrinkIsWeightedByBasis() {
+        int[][] result = solve(8, FlexAlign.FLEX_START, new int[] { 4, 8 }, new int[2], new int[] { 1, 1 });
+        assertArrayEquals(new int[] { 3, 5 }, result[0]);
+
+        // Nothing shrinks below zero
+        result = solve(0, FlexAlign.FLEX_START, new int[] { 2, 2 }, new int[2], new int[] { 1, 1 });
+        assertArrayEquals(new int[] { 0, 0 }, result[0]);
+    }
+
+    @Test
+    void testJustify() {
+        int[] bases = { 2, 2 };
+        assertArrayEquals(new int[] { 6, 8 }, solve(10, FlexAlign.FLEX_END, bases, new int[2], new int[2])[1]);
+        assertArrayEquals(new int[] { 3, 5 }, solve(10, FlexAlign.CENTER, bases, new int[2], new int[2])[1]);
+        assertArrayEquals(new int[] { 0, 8 }, solve(10, FlexAlign.SPACE_APART, bases, new int[2], new int[2])[1]);
+        assertArrayEquals(new int[] { 2, 6 }, solve(10, FlexAlign.SPACE_BETWEEN, bases, new int[2], new int[2])[1]);
+
+        // Growing children leave no space to distribute
+        assertArrayEquals(new int[] { 0, 5 }, solve(10, FlexAlign.CENTER, bases, new int[] { 1, 1 }, new int[2])[1]);
+    }
+
+    @Test
+    void testSolvesOneLine() {
+        int[] bases = { 5, 2, 2 };
+        int[] sizes = new int[3];
+        int[] offsets = new int[3];
+        FlexSolver.solve(1, 3, 6, FlexAlign.FLEX_START, bases, new int[] { 0, 1, 1 }, new int[3], sizes, offsets);
+
+        assertArrayEquals(new int[] { 0, 3, 3 }, sizes);
+        assertArrayEquals(new int[] { 0, 0, 3 }, offsets);
+    }
+
+    @Test
+    void testSpaceApartWithOneChild() {
+        int[][] result = solve(10, FlexAlign.SPACE_APART, new int[] { 4 }, new int[1], new int[1]);
+        assertArrayEquals(new int[] { 0 }, result[1]);
+    }
+}
@@ -1,13 +1,16 @@
 package textui.element;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
 import textui.TextUI;
+import textui.exception.ChildrenNotAllowedException;
 import textui.exception.ValueCannotBeSetException;
 
 public class SortedListElementTest {
@@ -216,4 +219,51 @@ public class SortedListElementTest {
             System.setOut(originalOut);
         }
     }
+
+    @Test
+    void testVirtualItems() {
+        // Arrange: prepare to capture output
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outputStream));
+
+        try {
+            AtomicInteger fetched = new AtomicInteger();
+
+            SortedListElement sortedList = new SortedListElement(2, 16)
+                .setItems(1_000_000, i -> {
+                    fetched.incrementAndGet();
+                    return "Item " + i;
+                })
+                .setScrollOffset(999_998);
+
+            new TextUI(sortedList).draw();
+
+            String output = outputStream.toString();
+
+            String expected = "999999. Item    \n" + //
+                                "1000000. Item   \n" + //
+                                "\n" ;
+            assertEquals(expected, output);
+            assertEquals(2, fetched.get());
+        } finally {
+            // Restore original System.out no matter what
+            System.setOut(originalOut);
+        }
+    }
+
+    @Test
+    void testScrollingKeepsTheLayout() throws ChildrenNotAllowedException {
+        SortedListElement sortedList = new SortedListElement(2, 10).setItems(100, i -> "Item " + i);
+        Element page = new Element(3, 10).insertChild(new Element(1, 10)).insertChild(sortedList);
+
+        LayoutResult layout = page.getLayout();
+        page.getFrameBuffer();
+        sortedList.scrollBy(10);
+
+        assertSame(layout, page.getLayout());
+        assertEquals('1', page.getFrameBuffer().get(1, 0));
+        assertEquals('1', page.getFrameBuffer().get(1, 1));
+        assertEquals('.', page.getFrameBuffer().get(1, 2));
+    }
 }
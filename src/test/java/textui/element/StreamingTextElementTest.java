@@ -0,0 +1,88 @@
+package textui.element;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.Test;
+
+import textui.TextUI;
+
+public class StreamingTextElementTest {
+    @Test
+    void testAppendWrapsNewText() {
+        // Arrange: prepare to capture output
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outputStream));
+
+        try {
+            StreamingTextElement log = new StreamingTextElement(3, 8)
+                .append("started in 12ms\nreq")
+                .append("uest ok\n")
+                .append("abcdefghijk ");
+
+            new TextUI(log).draw();
+
+            String output = outputStream.toString();
+
+            String expected = "ok      \n" + //
+                                "abcdefgh\n" + //
+                                "ijk     \n" + //
+                                "\n" ;
+            assertEquals(expected, output);
+        } finally {
+            // Restore original System.out no matter what
+            System.setOut(originalOut);
+        }
+    }
+
+    @Test
+    void testCapacityIsBounded() {
+        StreamingTextElement log = new StreamingTextElement(2, 10, 5);
+
+        for (int i = 0; i < 10_000; i++) {
+            log.append("line " + i + "\n");
+        }
+
+        assertEquals(5, log.getLineCount());
+        assertEquals(String.valueOf(new char[] { 'l', 'i', 'n', 'e', ' ', '9', '9', '9', '9', ' ' }),
+            rowToString(log, 1));
+    }
+
+    @Test
+    void testLongWordIsSplitWhileStreaming() {
+        StreamingTextElement log = new StreamingTextElement(2, 4, 3);
+
+        // A stream without spaces never ends its word
+        for (int i = 0; i < 10_000; i++) {
+            log.append("abc");
+        }
+
+        assertEquals(4, log.getLineCount());
+        assertEquals("bcab", rowToString(log, 0));
+        assertEquals("cabc", rowToString(log, 1));
+
+        log.append(" ok\n");
+        assertEquals("cabc", rowToString(log, 0));
+        assertEquals("ok  ", rowToString(log, 1));
+    }
+
+    @Test
+    void testSetTextReplacesStream() {
+        StreamingTextElement log = new StreamingTextElement(1, 10).append("old\n");
+        log.setText("new");
+
+        assertEquals(1, log.getLineCount());
+        assertEquals("new       ", rowToString(log, 0));
+    }
+
+    private static String rowToString(Element element, int row) {
+        StringBuilder builder = new StringBuilder();
+        for (char c : element.getScreen().get(row)) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -325,4 +325,18 @@ public class TextElementTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void testWideCharacters() {
+        TextElement text = new TextElement(2, 6).setText("日本語 テスト");
+
+        assertEquals('日', text.getScreen().get(0).get(0));
+        assertEquals('本', text.getScreen().get(0).get(2));
+        assertEquals('テ', text.getScreen().get(1).get(0));
+        assertEquals('ト', text.getScreen().get(1).get(4));
+
+        TextElement accent = new TextElement(1, 6).setText("cafe\u0301");
+        assertEquals('é', accent.getScreen().get(0).get(3));
+        assertEquals(' ', accent.getScreen().get(0).get(4));
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -216,4 +217,22 @@ public class UnsortedListElementTest {
             System.setOut(originalOut);
         }
     }
+
+    @Test
+    void testScrollItems() {
+        UnsortedListElement list = new UnsortedListElement(2, 8)
+            .setItems(List.of("one", "two", "three", "four"));
+
+        assertEquals(4, list.getItemCount());
+
+        list.scrollBy(1);
+        assertEquals(List.of('-', ' ', 't', 'w', 'o', ' ', ' ', ' '), list.getScreen().get(0));
+
+        list.scrollBy(10);
+        assertEquals(2, list.getScrollOffset());
+        assertEquals(List.of('-', ' ', 'f', 'o', 'u', 'r', ' ', ' '), list.getScreen().get(1));
+
+        list.scrollBy(-10);
+        assertEquals(0, list.getScrollOffset());
+    }
 }
@@ -0,0 +1,90 @@
+package textui.element;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import textui.exception.ValueCannotBeSetException;
+import textui.text.LineBreaker;
+import textui.text.Paragraph;
+
+public class WrapCacheTest {
+    @Test
+    void testElementsShareParagraphs() {
+        WrapCache cache = new WrapCache(8);
+
+        TextElement first = new TextElement(2, 10).setWrapCache(cache).setText("Press q to quit the viewer");
+        TextElement second = new TextElement(2, 10).setWrapCache(cache).setText("Press q to quit the viewer");
+        new TextElement(3, 8).setWrapCache(cache).setText("Press q to quit the viewer");
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+        assertEquals(first.getScreen(), second.getScreen());
+    }
+
+    @Test
+    void testWordCaseIsPartOfKey() throws ValueCannotBeSetException {
+        WrapCache cache = new WrapCache(8);
+
+        TextElement plain = new TextElement(1, 10).setWrapCache(cache).setText("help");
+        TextElement upper = new TextElement(1, 10).setWrapCache(cache);
+        upper.setWordCase(Case.UPPERCASE);
+        upper.setText("help");
+
+        assertEquals(0, cache.getHits());
+        assertEquals('h', plain.getScreen().get(0).get(0));
+        assertEquals('H', upper.getScreen().get(0).get(0));
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() {
+        WrapCache cache = new WrapCache(2);
+        WrapCache.Key a = new WrapCache.Key("a", 5, 1, Case.NOEDIT, LineBreaker.GREEDY);
+        WrapCache.Key b = new WrapCache.Key("b", 5, 1, Case.NOEDIT, LineBreaker.GREEDY);
+        WrapCache.Key c = new WrapCache.Key("c", 5, 1, Case.NOEDIT, LineBreaker.GREEDY);
+
+        Paragraph rowsA = cache.get(a, WrapCacheTest::single);
+        cache.get(b, WrapCacheTest::single);
+        assertSame(rowsA, cache.get(a, key -> new Paragraph()));
+
+        cache.get(c, WrapCacheTest::single);
+
+        assertEquals(1, cache.getEvictions());
+        assertSame(rowsA, cache.get(a, key -> new Paragraph()));
+        assertTrue(cache.get(b, key -> new Paragraph()).isEmpty());
+    }
+
+    @Test
+    void testEvictionByWeight() {
+        WrapCache cache = new WrapCache(8, 30);
+        WrapCache.Key a = new WrapCache.Key("aaaaaaaaaa", 5, 1, Case.NOEDIT, LineBreaker.GREEDY);
+        WrapCache.Key b = new WrapCache.Key("bbbbbbbbbb", 5, 1, Case.NOEDIT, LineBreaker.GREEDY);
+        WrapCache.Key c = new WrapCache.Key("cccccccccc", 5, 1, Case.NOEDIT, LineBreaker.GREEDY);
+
+        // Each entry weighs its ten characters and its one row
+        cache.get(a, WrapCacheTest::single);
+        cache.get(b, WrapCacheTest::single);
+        assertEquals(22, cache.getWeight());
+
+        cache.get(c, WrapCacheTest::single);
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+        assertEquals(22, cache.getWeight());
+        assertTrue(cache.get(a, key -> new Paragraph()).isEmpty());
+
+        // A paragraph heavier than the whole budget is not kept
+        WrapCache.Key large = new WrapCache.Key("x".repeat(40), 5, 1, Case.NOEDIT, LineBreaker.GREEDY);
+        cache.get(large, WrapCacheTest::single);
+        assertTrue(cache.get(large, key -> new Paragraph()).isEmpty());
+        assertTrue(cache.getWeight() <= cache.getMaxWeight());
+    }
+
+    private static Paragraph single(WrapCache.Key key) {
+        Paragraph rows = new Paragraph();
+        rows.add(key.text());
+        return rows;
+    }
+}
@@ -0,0 +1,119 @@
+package textui.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import textui.element.BorderStyle;
+import textui.element.Element;
+import textui.element.TextElement;
+import textui.exception.ChildrenNotAllowedException;
+
+public class DirectFrameBufferTest {
+    @Test
+    void testCells() {
+        DirectFrameBuffer buffer = new DirectFrameBuffer(2, 5);
+        buffer.set(0, 0, 'é');
+        buffer.set(0, 1, '€');
+        buffer.setWide(0, 2, '世');
+        buffer.set(0, 4, "😀".codePointAt(0));
+        buffer.fillRow(1, 0, 5, '─');
+
+        assertTrue(buffer.isDirect());
+        assertEquals('é', buffer.get(0, 0));
+        assertEquals('€', buffer.get(0, 1));
+        assertEquals('\uFFFD', buffer.get(0, 4));
+
+        StringBuilder builder = new StringBuilder();
+        buffer.appendTo(builder);
+        assertEquals("é€世\uFFFD\n─────\n", builder.toString());
+    }
+
+    @Test
+    void testRegionAndCopy() {
+        DirectFrameBuffer buffer = new DirectFrameBuffer(2, 4);
+        buffer.region(0, 1, 2, 2).clear('#');
+
+        FrameBuffer copy = new FrameBuffer(2, 4);
+        copy.copyFrom(buffer, 0, 0);
+
+        assertEquals(-1, copy.mismatch(buffer, 0, 0));
+        assertEquals(" ## ", new String(new char[] { copy.get(1, 0), copy.get(1, 1), copy.get(1, 2), copy.get(1, 3) }));
+    }
+
+    @Test
+    void testWriteTo(@TempDir Path directory) throws IOException {
+        DirectFrameBuffer buffer = new DirectFrameBuffer(2, 2);
+        buffer.set(1, 1, 'x');
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(Channels.newChannel(out));
+        assertEquals("  \n x\n", out.toString(StandardCharsets.UTF_8));
+
+        Path file = directory.resolve("frame.txt");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            buffer.writeTo(channel, 3);
+        }
+        assertEquals(9, Files.size(file));
+
+        // A view writes the cells visible through it
+        out.reset();
+        buffer.region(0, 1, 2, 1).writeTo(Channels.newChannel(out));
+        assertEquals(" \nx\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWriteToEncodesUtf8() throws IOException, ChildrenNotAllowedException {
+        Element root = new Element(1, 6).setBorder().setBorderStyle(BorderStyle.SINGLE);
+        root.insertChild(new TextElement(1, 6).setText("é 世界"));
+
+        DirectFrameBuffer buffer = new DirectFrameBuffer(root.getHeight(), root.getWidth());
+        root.renderTo(buffer);
+
+        String expected = "┌──────┐\n│é 世界│\n└──────┘\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(Channels.newChannel(out));
+
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, buffer.byteSize());
+    }
+
+    @Test
+    void testRenderElement() throws ChildrenNotAllowedException {
+        Element root = new Element(4, 6).setBorder();
+        root.insertChild(new Element(1, 2).setFill(true));
+
+        DirectFrameBuffer buffer = new DirectFrameBuffer(root.getHeight(), root.getWidth());
+        root.renderTo(buffer);
+
+        StringBuilder expected = new StringBuilder();
+        root.getFrameBuffer().appendTo(expected);
+
+        StringBuilder actual = new StringBuilder();
+        buffer.appendTo(actual);
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void testCanvasTooLargeIsRejected() {
+        // 1.2 billion cells fit in an int, but their bytes do not
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> new DirectFrameBuffer(40_000, 30_000));
+        assertEquals("a 40000 by 30000 canvas does not fit in a direct buffer", error.getMessage());
+
+        // 2.5 billion cells do not even fit in an int
+        assertThrows(IllegalArgumentException.class, () -> new DirectFrameBuffer(50_000, 50_000));
+    }
+}
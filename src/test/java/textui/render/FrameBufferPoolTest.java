@@ -0,0 +1,62 @@
+package textui.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class FrameBufferPoolTest {
+    @Test
+    void testAcquireReturnsClearedBuffer() {
+        FrameBufferPool pool = new FrameBufferPool();
+        FrameBuffer buffer = pool.acquire(3, 5);
+
+        assertEquals(3, buffer.getHeight());
+        assertEquals(5, buffer.getWidth());
+        assertEquals(' ', buffer.get(2, 4));
+        assertEquals(16, pool.getAllocatedCells());
+    }
+
+    @Test
+    void testReleasedBuffersAreReusedBySizeClass() {
+        FrameBufferPool pool = new FrameBufferPool();
+        FrameBuffer buffer = pool.acquire(3, 5);
+        buffer.setStyle(Style.DEFAULT.with(Style.BOLD).pack());
+        buffer.set(0, 0, 'x');
+        pool.release(buffer);
+
+        // 4 x 4 cells fall in the same class as 3 x 5
+        FrameBuffer reused = pool.acquire(4, 4);
+        assertSame(buffer, reused);
+        assertEquals(Cell.of(' ', 0), reused.getCell(0, 0));
+
+        // A larger class needs a new buffer
+        assertNotSame(buffer, pool.acquire(5, 5));
+        assertEquals(16 + 32, pool.getAllocatedCells());
+    }
+
+    @Test
+    void testResizeKeepsBufferThatFits() {
+        FrameBufferPool pool = new FrameBufferPool();
+        FrameBuffer small = pool.acquire(2, 2);
+        FrameBuffer large = pool.resize(small, 10, 10);
+        assertNotSame(small, large);
+
+        // Shrinking and growing back reuses the arrays already allocated
+        FrameBuffer shrunk = pool.resize(large, 2, 2);
+        assertSame(large, shrunk);
+        pool.release(shrunk);
+        long allocated = pool.getAllocatedCells();
+        pool.resize(pool.acquire(2, 2), 10, 10);
+        assertEquals(allocated, pool.getAllocatedCells());
+    }
+
+    @Test
+    void testViewsCannotBePooled() {
+        FrameBufferPool pool = new FrameBufferPool();
+        FrameBuffer buffer = pool.acquire(2, 2);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(buffer.region(0, 0, 1, 1)));
+    }
+}
@@ -0,0 +1,120 @@
+package textui.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class FrameBufferTest {
+    @Test
+    void testSize() {
+        FrameBuffer buffer = new FrameBuffer(3, 5);
+        assertEquals(3, buffer.getHeight());
+        assertEquals(5, buffer.getWidth());
+        assertEquals(5, buffer.getStride());
+        assertEquals(' ', buffer.get(2, 4));
+    }
+
+    @Test
+    void testSetIgnoresOutOfBounds() {
+        FrameBuffer buffer = new FrameBuffer(2, 2);
+        buffer.set(0, 1, 'a');
+        buffer.set(-1, 0, 'b');
+        buffer.set(0, 2, 'c');
+        buffer.set(2, 0, 'd');
+
+        StringBuilder builder = new StringBuilder();
+        buffer.appendTo(builder);
+        assertEquals(" a\n  \n", builder.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(2, 0));
+    }
+
+    @Test
+    void testReset() {
+        FrameBuffer buffer = new FrameBuffer(2, 3);
+        buffer.set(1, 1, 'x');
+        buffer.reset(1, 2, '#');
+
+        StringBuilder builder = new StringBuilder();
+        buffer.appendTo(builder);
+        assertEquals("##\n", builder.toString());
+    }
+
+    @Test
+    void testFill() {
+        FrameBuffer buffer = new FrameBuffer(3, 4);
+        buffer.fillRow(0, -2, 2, '-');
+        buffer.fillColumn(3, 1, 10, '|');
+
+        StringBuilder builder = new StringBuilder();
+        buffer.appendTo(builder);
+        assertEquals("--  \n   |\n   |\n", builder.toString());
+    }
+
+    @Test
+    void testCopyFromClipsToBuffer() {
+        FrameBuffer target = new FrameBuffer(3, 3);
+        FrameBuffer source = new FrameBuffer(2, 2);
+        source.reset(2, 2, '#');
+
+        target.copyFrom(source, -1, 2);
+
+        StringBuilder builder = new StringBuilder();
+        target.appendTo(builder);
+        assertEquals("  #\n   \n   \n", builder.toString());
+    }
+
+    @Test
+    void testToList() {
+        FrameBuffer buffer = new FrameBuffer(1, 2);
+        buffer.set(0, 0, 'h');
+        buffer.set(0, 1, 'i');
+
+        assertEquals(List.of(List.of('h', 'i')), buffer.toList());
+    }
+
+    @Test
+    void testRegionWritesIntoParent() {
+        FrameBuffer buffer = new FrameBuffer(3, 4);
+        FrameBuffer region = buffer.region(1, 1, 2, 2);
+        region.clear('#');
+        region.set(0, 0, 'a');
+
+        StringBuilder builder = new StringBuilder();
+        buffer.appendTo(builder);
+        assertEquals("    \n a# \n ## \n", builder.toString());
+    }
+
+    @Test
+    void testRegionIsClippedToParent() {
+        FrameBuffer buffer = new FrameBuffer(2, 3);
+        FrameBuffer outer = buffer.region(0, 1, 2, 2);
+        FrameBuffer inner = outer.region(-1, 1, 3, 3);
+        inner.clear('#');
+
+        assertFalse(inner.isClipped());
+        assertTrue(outer.region(0, 2, 1, 1).isClipped());
+
+        StringBuilder builder = new StringBuilder();
+        buffer.appendTo(builder);
+        assertEquals("  #\n  #\n", builder.toString());
+    }
+
+    @Test
+    void testStyledCells() {
+        int red = new Style(Style.RED, Style.DEFAULT_COLOR, Style.BOLD).pack();
+        FrameBuffer frame = new FrameBuffer(1, 3);
+
+        frame.setStyle(red);
+        frame.region(0, 1, 1, 2).set(0, 0, 'x');
+
+        assertEquals(0, Cell.styleOf(frame.getCell(0, 0)));
+        assertEquals(Cell.of('x', red), frame.getCell(0, 1));
+        assertEquals(Style.unpack(red), new Style(Style.RED, Style.DEFAULT_COLOR, Style.BOLD));
+        assertEquals(0, Style.DEFAULT.pack());
+    }
+}
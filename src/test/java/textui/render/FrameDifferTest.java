@@ -0,0 +1,80 @@
+package textui.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class FrameDifferTest {
+    private static final String ESC = "\u001b[";
+
+    private static String diff(FrameDiffer differ, FrameBuffer frame) throws IOException {
+        FrameWriter writer = new FrameWriter();
+        differ.diff(frame, writer);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testFirstFrameIsWrittenInFull() throws IOException {
+        FrameDiffer differ = new FrameDiffer();
+        FrameBuffer frame = new FrameBuffer(2, 3);
+        frame.fillRow(0, 0, 3, '#');
+
+        String expected = ESC + "2J"
+            + ESC + "1;1H###"
+            + ESC + "2;1H   "
+            + ESC + "3;1H";
+        assertEquals(expected, diff(differ, frame));
+    }
+
+    @Test
+    void testOnlyChangedRunsAreWritten() throws IOException {
+        FrameDiffer differ = new FrameDiffer();
+        FrameBuffer frame = new FrameBuffer(2, 20);
+        diff(differ, frame);
+
+        frame.set(0, 2, 'a');
+        frame.set(0, 3, 'b');
+        frame.set(1, 15, 'c');
+
+        String expected = ESC + "1;3Hab"
+            + ESC + "2;16Hc"
+            + ESC + "3;1H";
+        assertEquals(expected, diff(differ, frame));
+
+        // Nothing changed: only the cursor is parked below the frame
+        assertEquals(ESC + "3;1H", diff(differ, frame));
+    }
+
+    @Test
+    void testCloseRunsAreMerged() throws IOException {
+        FrameDiffer differ = new FrameDiffer();
+        FrameBuffer frame = new FrameBuffer(1, 20);
+        diff(differ, frame);
+
+        frame.set(0, 0, 'a');
+        frame.set(0, 3, 'b');
+        frame.set(0, 19, 'c');
+
+        String expected = ESC + "1;1Ha  b"
+            + ESC + "1;20Hc"
+            + ESC + "2;1H";
+        assertEquals(expected, diff(differ, frame));
+    }
+
+    @Test
+    void testInvalidateForcesRepaint() throws IOException {
+        FrameDiffer differ = new FrameDiffer();
+        FrameBuffer frame = new FrameBuffer(1, 2);
+        diff(differ, frame);
+        differ.invalidate();
+
+        assertEquals(ESC + "2J" + ESC + "1;1H  " + ESC + "2;1H", diff(differ, frame));
+    }
+}
@@ -0,0 +1,110 @@
+package textui.render;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class FrameWriterTest {
+    @Test
+    void testWriteFrame() throws IOException {
+        FrameBuffer frame = new FrameBuffer(2, 3);
+        frame.fillRow(1, 0, 3, '#');
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FrameWriter().writeFrame(frame).writeTo(out);
+
+        assertEquals("   \n###\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testUtf8Encoding() throws IOException {
+        String text = "aé€😀";
+        FrameBuffer frame = new FrameBuffer(1, text.length());
+        for (int i = 0; i < text.length(); i++) {
+            frame.set(0, i, text.charAt(i));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FrameWriter().writeRow(frame, 0, 0, text.length()).writeTo(out);
+
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    void testWideCharactersSkipTheirTail() throws IOException {
+        FrameBuffer frame = new FrameBuffer(1, 5);
+        frame.setWide(0, 0, '世');
+        frame.setWide(0, 2, '界');
+        frame.set(0, 4, FrameBuffer.WIDE_TAIL);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FrameWriter().writeRow(frame, 0, 0, 5).writeTo(out);
+
+        // A tail without its wide character is written as a space
+        assertEquals("世界 ", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSupplementaryCharactersTakeOneCell() throws IOException {
+        FrameBuffer frame = new FrameBuffer(1, 3);
+        frame.setWide(0, 0, "😀".codePointAt(0));
+        frame.set(0, 2, "𝐀".codePointAt(0));
+
+        assertEquals("😀".codePointAt(0), frame.getCodePoint(0, 0));
+        assertEquals('\uFFFD', frame.get(0, 2));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FrameWriter().writeRow(frame, 0, 0, 3).writeTo(out);
+
+        assertEquals("😀𝐀", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testControlSequences() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FrameWriter().clearScreen().moveCursor(11, 0).writeTo(Channels.newChannel(out));
+
+        assertEquals("\u001b[2J\u001b[12;1H", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBufferGrowsAndIsReused() throws IOException {
+        FrameBuffer frame = new FrameBuffer(50, 100);
+        FrameWriter writer = new FrameWriter(16);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.writeFrame(frame);
+        assertEquals(50 * 101, writer.size());
+
+        writer.writeTo(out);
+        assertEquals(0, writer.size());
+        assertEquals(50 * 101, out.size());
+    }
+
+    @Test
+    void testStyleChangesOnly() throws IOException {
+        int bold = Style.DEFAULT.with(Style.BOLD).pack();
+        int boldRed = Style.DEFAULT.with(Style.BOLD).withForeground(Style.RED).pack();
+        int blueOnGray = new Style(Style.BLUE, 244, 0).pack();
+
+        FrameBuffer frame = new FrameBuffer(1, 6);
+        frame.setCell(0, 0, Cell.of('a', bold));
+        frame.setCell(0, 1, Cell.of('b', bold));
+        frame.setCell(0, 2, Cell.of('c', boldRed));
+        frame.setCell(0, 3, Cell.of('d', blueOnGray));
+        frame.setCell(0, 4, Cell.of('e', 0));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FrameWriter().writeFrame(frame).writeTo(out);
+
+        assertEquals(
+            "\u001b[1mab\u001b[31mc\u001b[0;34;48;5;244md\u001b[0me \n",
+            out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package textui.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ScratchArenaTest {
+    @Test
+    void testViewsAreReusedAcrossFrames() {
+        FrameBuffer buffer = new FrameBuffer(4, 4);
+        ScratchArena arena = new ScratchArena();
+
+        arena.open();
+        FrameBuffer first = ScratchArena.scratchRegion(buffer, 1, 1, 2, 2);
+        FrameBuffer second = ScratchArena.scratchRegion(buffer, 0, 0, 1, 1);
+        arena.close();
+        assertNotSame(first, second);
+
+        arena.open();
+        FrameBuffer reused = ScratchArena.scratchRegion(buffer, 2, 3, 2, 2);
+        arena.close();
+        assertSame(first, reused);
+
+        // The reused view behaves like a fresh one at its new place
+        reused.set(0, 0, 'x');
+        reused.set(0, 1, 'y');
+        assertEquals('x', buffer.get(2, 3));
+        assertEquals(1, reused.getClipRight());
+    }
+
+    @Test
+    void testScratchArraysAreZeroed() {
+        ScratchArena arena = new ScratchArena();
+
+        arena.open();
+        int[] first = arena.ints(3);
+        first[0] = 7;
+        int[] second = arena.ints(4);
+        assertNotSame(first, second);
+
+        arena.open();
+        assertSame(first, arena.ints(3));
+        assertEquals(0, first[0]);
+        assertTrue(first.length >= 3);
+        arena.close();
+
+        List<String> list = arena.list();
+        list.add("a");
+        arena.open();
+        assertSame(list, arena.list());
+        assertTrue(list.isEmpty());
+        arena.close();
+    }
+
+    @Test
+    void testNoArenaOnOtherThreads() throws InterruptedException {
+        ScratchArena arena = new ScratchArena();
+        arena.open();
+
+        ScratchArena[] seen = new ScratchArena[1];
+        Thread thread = new Thread(() -> seen[0] = ScratchArena.current());
+        thread.start();
+        thread.join();
+
+        assertSame(arena, ScratchArena.current());
+        assertNull(seen[0]);
+        arena.close();
+        assertNull(ScratchArena.current());
+    }
+}
@@ -0,0 +1,98 @@
+package textui.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import textui.element.Element;
+import textui.exception.BufferBudgetExceededException;
+
+public class SessionManagerTest {
+    // Every session encodes its frames into a buffer of at least this size
+    private static final int WRITER_BYTES = 4096;
+
+    @Test
+    void testRenderAll() {
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+
+        try (SessionManager manager = new SessionManager(4, 1 << 20)) {
+            for (int i = 0; i < 100; i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                outputs.add(out);
+                manager.openSession(new Element(1, 3).setFill(true), out);
+            }
+
+            manager.renderAll().join();
+            assertEquals(100 * (1 * 3 * Long.BYTES + WRITER_BYTES), manager.getReservedBufferBytes());
+        }
+
+        for (ByteArrayOutputStream out : outputs) {
+            assertEquals("###\n" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testBufferBudget() {
+        int smallBytes = 2 * 5 * Long.BYTES + WRITER_BYTES;
+        int largeBytes = 2 * 6 * Long.BYTES + WRITER_BYTES;
+
+        try (SessionManager manager = new SessionManager(1, smallBytes + largeBytes - 1)) {
+            Session small = manager.openSession(new Element(2, 5), new ByteArrayOutputStream());
+            Session large = manager.openSession(new Element(2, 6), new ByteArrayOutputStream());
+
+            manager.render(small).join();
+            assertEquals(smallBytes, manager.getReservedBufferBytes());
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> manager.render(large).get());
+            assertTrue(failure.getCause() instanceof BufferBudgetExceededException);
+
+            small.close();
+            assertEquals(0, manager.getReservedBufferBytes());
+            assertEquals(1, manager.getSessionCount());
+
+            manager.render(large).join();
+            assertEquals(largeBytes, manager.getReservedBufferBytes());
+        }
+    }
+
+    @Test
+    void testCacheBoundariesCountTowardsBudget() throws Exception {
+        int plainBytes = 2 * 4 * Long.BYTES + WRITER_BYTES;
+
+        try (SessionManager manager = new SessionManager(1, plainBytes + 2 * 4 * Long.BYTES - 1)) {
+            Element panel = new Element(2, 4);
+            Session session = manager.openSession(new Element(2, 4).insertChild(panel), new ByteArrayOutputStream());
+
+            manager.render(session).join();
+            assertEquals(plainBytes, manager.getReservedBufferBytes());
+
+            // The panel's cached copy would take the session over the budget
+            session.update(() -> panel.setCacheBoundary(true));
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> manager.render(session).get());
+            assertTrue(failure.getCause() instanceof BufferBudgetExceededException);
+            assertEquals(plainBytes, manager.getReservedBufferBytes());
+        }
+    }
+
+    @Test
+    void testUpdate() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (SessionManager manager = new SessionManager(1, 1 << 20)) {
+            Session session = manager.openSession(new Element(1, 2), out);
+            session.update(() -> session.getBody().setFill(true));
+            manager.render(session).join();
+        }
+
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("##\n"));
+    }
+}
@@ -0,0 +1,51 @@
+package textui.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class DisplayWidthTest {
+    @Test
+    void testAsciiWidthIsLength() {
+        assertEquals(0, DisplayWidth.of(""));
+        assertEquals(11, DisplayWidth.of("hello world"));
+        assertEquals(5, DisplayWidth.asciiEnd("hello世界", 0, 7));
+    }
+
+    @Test
+    void testWideAndZeroWidthCharacters() {
+        assertEquals(4, DisplayWidth.of("世界"));
+        assertEquals(6, DisplayWidth.of("ｈｅｙ"));
+        assertEquals(5, DisplayWidth.of("한국a"));
+        assertEquals(4, DisplayWidth.of("café"));
+        assertEquals(2, DisplayWidth.of("😀"));
+        assertEquals(1, DisplayWidth.codePointWidth('é'));
+        assertEquals(0, DisplayWidth.codePointWidth(0x200B));
+    }
+
+    @Test
+    void testGraphemeClusters() {
+        // Family emoji joined with zero-width joiners, and a skin tone modifier
+        String family = "👨‍👩‍👧";
+        assertEquals(family.length(), DisplayWidth.nextCluster(family, 0, family.length()));
+        assertEquals(2, DisplayWidth.of(family));
+        assertEquals(2, DisplayWidth.of("👍🏽"));
+
+        // Two regional indicators make one flag
+        assertEquals(2, DisplayWidth.of("🇿🇦"));
+        assertEquals(2, DisplayWidth.of("❤️"));
+    }
+
+    @Test
+    void testFitCutsBetweenClusters() {
+        String text = "ab世界cd";
+        assertEquals(3, DisplayWidth.fit(text, 0, text.length(), 5));
+        assertEquals(4, DisplayWidth.fit(text, 0, text.length(), 6));
+        assertEquals(2, DisplayWidth.fit(text, 0, text.length(), 3));
+
+        String accent = "cafés";
+        assertEquals(5, DisplayWidth.fit(accent, 0, accent.length(), 4));
+        assertEquals('é', DisplayWidth.toCell(accent, 3, 5));
+        assertEquals("𝐀".codePointAt(0), DisplayWidth.toCell("𝐀", 0, 2));
+    }
+}
@@ -0,0 +1,107 @@
+package textui.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LineBreakerTest {
+    @Test
+    void testGreedyOffsets() {
+        LineBreaks breaks = LineBreaker.GREEDY.breakLines("the quick brown fox", 10, 10);
+
+        assertEquals(2, breaks.getLineCount());
+        assertEquals("the quick", breaks.getLine(0).toString());
+        assertEquals(10, breaks.getStart(1));
+        assertEquals(List.of("brown", "fox"), breaks.getWords(1));
+    }
+
+    @Test
+    void testGreedyMatchesWordListWrapping() {
+        Random random = new Random(42);
+        String[] vocabulary = { "a", "to", "the", "", "wrap", "element", "terminal", "characters" };
+
+        for (int n = 0; n < 500; n++) {
+            StringBuilder text = new StringBuilder();
+            int words = random.nextInt(30);
+            for (int i = 0; i < words; i++) {
+                if (i > 0) text.append(' ');
+                text.append(vocabulary[random.nextInt(vocabulary.length)]);
+            }
+
+            int width = 1 + random.nextInt(15);
+            int height = 1 + random.nextInt(8);
+
+            LineBreaks breaks = LineBreaker.GREEDY.breakLines(text, width, height);
+            List<List<String>> actual = new ArrayList<>();
+            for (int i = 0; i < breaks.getLineCount(); i++) {
+                actual.add(breaks.getWords(i));
+            }
+
+            List<List<String>> expected = wrapWordList(text.toString(), width, height);
+            // The reference keeps emitting empty rows after a word that does not fit
+            while (expected.size() > actual.size() && expected.getLast().isEmpty()) {
+                expected.removeLast();
+            }
+
+            assertEquals(expected, actual, "\"" + text + "\" at width " + width);
+        }
+    }
+
+    @Test
+    void testOptimalFitBalancesLines() {
+        String text = "aaa bb cc ddddd";
+
+        assertEquals(List.of("aaa bb", "cc", "ddddd"), lines(LineBreaker.GREEDY.breakLines(text, 6, 10)));
+        assertEquals(List.of("aaa", "bb cc", "ddddd"), lines(LineBreaker.OPTIMAL_FIT.breakLines(text, 6, 10)));
+    }
+
+    @Test
+    void testOptimalFitOverflowsLongWords() {
+        LineBreaks breaks = LineBreaker.OPTIMAL_FIT.breakLines("a extraordinary b", 5, 10);
+        assertEquals(List.of("a", "extraordinary", "b"), lines(breaks));
+    }
+
+    private static List<String> lines(LineBreaks breaks) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < breaks.getLineCount(); i++) {
+            lines.add(breaks.getLine(i).toString());
+        }
+        return lines;
+    }
+
+    // The word-list algorithm TextElement.setText used before LineBreaker
+    private static List<List<String>> wrapWordList(String text, int contentWidth, int contentHeight) {
+        List<String> words = new ArrayList<>(Arrays.asList(text.split(" ")));
+        List<List<String>> paragraph = new ArrayList<>();
+        if (text.isBlank()) return paragraph;
+
+        for (int i = 0; i < contentHeight; i++) {
+            if (words.isEmpty()) break;
+
+            int rowCount = 0;
+            List<String> row = new ArrayList<>();
+
+            while (rowCount <= contentWidth) {
+                if (words.isEmpty()) break;
+
+                String word = words.removeFirst();
+
+                if (rowCount + word.length() > contentWidth) {
+                    words.addFirst(word);
+                    break;
+                }
+
+                row.add(word);
+                rowCount += word.length() + 1;
+            }
+            paragraph.add(row);
+        }
+
+        return paragraph;
+    }
+}
@@ -0,0 +1,38 @@
+package textui.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ParagraphTest {
+    @Test
+    void testRowsShareSourceText() {
+        String text = "press q to quit the viewer";
+        Paragraph rows = new Paragraph();
+        rows.addAll(LineBreaker.GREEDY.breakLines(text, 10, 10));
+
+        assertEquals(3, rows.size());
+        assertSame(text, rows.getText(2));
+        assertEquals(List.of("quit", "the"), rows.getWords(1));
+        assertEquals(6, rows.length(2));
+    }
+
+    @Test
+    void testGrowsAndClears() {
+        Paragraph rows = new Paragraph();
+        for (int i = 0; i < 20; i++) {
+            rows.add("row " + i);
+        }
+
+        Paragraph copy = new Paragraph();
+        copy.addAll(rows);
+        rows.clear();
+
+        assertEquals(0, rows.size());
+        assertEquals(20, copy.size());
+        assertEquals(List.of("row", "19"), copy.getWords(19));
+    }
+}